@@ -0,0 +1,71 @@
+package io.github.cottonmc.jankson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.registry.Registries;
+
+/**
+ * Saves and loads every BlockState in the vanilla registry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockStateBenchmark {
+	private List<BlockState> states;
+	private List<JsonElement> saved;
+	
+	@Setup
+	public void setup() {
+		MinecraftBootstrap.initialize();
+		
+		states = new ArrayList<>();
+		for(Block block : Registries.BLOCK) {
+			states.addAll(block.getStateManager().getStates());
+		}
+		
+		saved = new ArrayList<>(states.size());
+		for(BlockState state : states) {
+			saved.add(BlockAndItemSerializers.saveBlockState(state, null));
+		}
+	}
+	
+	@Benchmark
+	public void saveBlockStates(Blackhole blackhole) {
+		for(BlockState state : states) {
+			blackhole.consume(BlockAndItemSerializers.saveBlockState(state, null));
+		}
+	}
+	
+	@Benchmark
+	public void getBlockStates(Blackhole blackhole) {
+		for(JsonElement elem : saved) {
+			if (elem instanceof JsonObject) {
+				blackhole.consume(BlockAndItemSerializers.getBlockState((JsonObject) elem, null));
+			} else {
+				blackhole.consume(BlockAndItemSerializers.getBlockStatePrimitive(((JsonPrimitive) elem).asString(), null));
+			}
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package io.github.cottonmc.jankson;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import blue.endless.jankson.Jankson;
+
+/**
+ * Cost of building a fully configured Jankson, as every mod using this library does at least once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JanksonFactoryBenchmark {
+	@Setup
+	public void setup() {
+		MinecraftBootstrap.initialize();
+	}
+	
+	@Benchmark
+	public Jankson createJankson() {
+		return JanksonFactory.createJankson();
+	}
+}
@@ -0,0 +1,115 @@
+package io.github.cottonmc.jankson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonElement;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+
+/**
+ * Codec round-trips through JanksonOps, against Mojang's JsonOps on the same data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JanksonOpsBenchmark {
+	static final class Entry {
+		static final Codec<Entry> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+				Codec.STRING.fieldOf("name").forGetter(it -> it.name),
+				Codec.INT.fieldOf("count").forGetter(it -> it.count),
+				Codec.DOUBLE.fieldOf("weight").forGetter(it -> it.weight),
+				Codec.BOOL.fieldOf("enabled").forGetter(it -> it.enabled),
+				Codec.INT.listOf().fieldOf("values").forGetter(it -> it.values),
+				Codec.unboundedMap(Codec.STRING, Codec.STRING).fieldOf("tags").forGetter(it -> it.tags)
+			).apply(instance, Entry::new));
+		
+		final String name;
+		final int count;
+		final double weight;
+		final boolean enabled;
+		final List<Integer> values;
+		final Map<String, String> tags;
+		
+		Entry(String name, int count, double weight, boolean enabled, List<Integer> values, Map<String, String> tags) {
+			this.name = name;
+			this.count = count;
+			this.weight = weight;
+			this.enabled = enabled;
+			this.values = values;
+			this.tags = tags;
+		}
+	}
+	
+	static final Codec<List<Entry>> CODEC = Entry.CODEC.listOf();
+	
+	@Param({ "10", "1000" })
+	public int size;
+	
+	@Param({ "false", "true" })
+	public boolean compressed;
+	
+	private List<Entry> data;
+	private JanksonOps janksonOps;
+	private JsonOps jsonOps;
+	private blue.endless.jankson.JsonElement janksonTree;
+	private JsonElement gsonTree;
+	
+	@Setup
+	public void setup() {
+		data = new ArrayList<>(size);
+		for(int i=0; i<size; i++) {
+			List<Integer> values = new ArrayList<>();
+			for(int j=0; j<16; j++) values.add(i * j);
+			data.add(new Entry("entry_"+i, i, i / 3.0, (i & 1)==0, values, Map.of("kind", "k"+(i % 7), "source", "bench")));
+		}
+		
+		janksonOps = compressed ? JanksonOps.COMPRESSED : JanksonOps.INSTANCE;
+		jsonOps = compressed ? JsonOps.COMPRESSED : JsonOps.INSTANCE;
+		janksonTree = CODEC.encodeStart(janksonOps, data).getOrThrow();
+		gsonTree = CODEC.encodeStart(jsonOps, data).getOrThrow();
+	}
+	
+	@Benchmark
+	public blue.endless.jankson.JsonElement encodeJankson() {
+		return CODEC.encodeStart(janksonOps, data).getOrThrow();
+	}
+	
+	@Benchmark
+	public List<Entry> decodeJankson() {
+		return CODEC.parse(janksonOps, janksonTree).getOrThrow();
+	}
+	
+	@Benchmark
+	public JsonElement encodeGson() {
+		return CODEC.encodeStart(jsonOps, data).getOrThrow();
+	}
+	
+	@Benchmark
+	public List<Entry> decodeGson() {
+		return CODEC.parse(jsonOps, gsonTree).getOrThrow();
+	}
+	
+	@Benchmark
+	public JsonElement convertJanksonToGson() {
+		return janksonOps.convertTo(jsonOps, janksonTree);
+	}
+}
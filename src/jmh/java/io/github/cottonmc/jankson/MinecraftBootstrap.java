@@ -0,0 +1,20 @@
+package io.github.cottonmc.jankson;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+
+/**
+ * Brings up the vanilla registries so benchmarks can touch blocks, items and friends.
+ */
+final class MinecraftBootstrap {
+	private static boolean initialized = false;
+	
+	private MinecraftBootstrap() {}
+	
+	static synchronized void initialize() {
+		if (initialized) return;
+		SharedConstants.createGameVersion();
+		Bootstrap.initialize();
+		initialized = true;
+	}
+}
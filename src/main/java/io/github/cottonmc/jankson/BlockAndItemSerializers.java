@@ -1,9 +1,14 @@
 package io.github.cottonmc.jankson;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Optional;
 
+import blue.endless.jankson.JsonArray;
 import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonNull;
 import blue.endless.jankson.JsonObject;
 import blue.endless.jankson.JsonPrimitive;
 import blue.endless.jankson.api.Marshaller;
@@ -14,7 +19,18 @@ import net.minecraft.state.property.Property;
 import net.minecraft.util.Identifier;
 
 public class BlockAndItemSerializers {
+	/** The most states {@link #getBlockStates} will read from a run that only has one distinct state. */
+	public static final int MAX_UNIFORM_STATES = 1 << 24;
+	
 	public static BlockState getBlockStatePrimitive(String blockIdString, Marshaller m) {
+		if (!JanksonMetrics.ENABLED) return readBlockStatePrimitive(blockIdString);
+		long start = System.nanoTime();
+		BlockState result = readBlockStatePrimitive(blockIdString);
+		JanksonMetrics.GET_BLOCK_STATE.record(start);
+		return result;
+	}
+	
+	private static BlockState readBlockStatePrimitive(String blockIdString) {
 		Optional<Block> blockOpt = Registries.BLOCK.getOptionalValue(Identifier.of(blockIdString));
 		if (blockOpt.isPresent()) {
 			return blockOpt.get().getDefaultState();
@@ -28,6 +44,14 @@ public class BlockAndItemSerializers {
 	 * @return the BlockState represented, or null if the object does not represent a valid BlockState.
 	 */
 	public static BlockState getBlockState(JsonObject json, Marshaller m) {
+		if (!JanksonMetrics.ENABLED) return readBlockState(json);
+		long start = System.nanoTime();
+		BlockState result = readBlockState(json);
+		JanksonMetrics.GET_BLOCK_STATE.record(start);
+		return result;
+	}
+	
+	private static BlockState readBlockState(JsonObject json) {
 		String blockIdString = json.get(String.class, "block");
 		
 		Block block = Registries.BLOCK.getOptionalValue(Identifier.of(blockIdString)).orElse(null);
@@ -37,16 +61,15 @@ public class BlockAndItemSerializers {
 		JsonObject stateObject = json.getObject("BlockStateTag");
 		if (stateObject==null) stateObject = json;
 		
-		Collection<Property<?>> properties = state.getProperties();
-		for(String key : stateObject.keySet()) {
+		BlockPropertyIndex index = BlockPropertyIndex.of(block);
+		for(Map.Entry<String, JsonElement> entry : stateObject.entrySet()) {
+			String key = entry.getKey();
 			if (stateObject==json && (key.equals("BlockStateTag") || key.equals("block"))) continue;
+			if (!(entry.getValue() instanceof JsonPrimitive)) continue;
 			
-			for(Property<?> property : properties) {
-				if (property.getName().equals(key)) {
-					String val = stateObject.get(String.class, key);
-					state = withProperty(state, property, val);
-					break;
-				}
+			Property<?> property = index.getProperty(key);
+			if (property!=null) {
+				state = index.with(state, property, ((JsonPrimitive) entry.getValue()).asString());
 			}
 		}
 		
@@ -54,6 +77,14 @@ public class BlockAndItemSerializers {
 	}
 	
 	public static JsonElement saveBlockState(BlockState state, Marshaller m) {
+		if (!JanksonMetrics.ENABLED) return writeBlockState(state);
+		long start = System.nanoTime();
+		JsonElement result = writeBlockState(state);
+		JanksonMetrics.SAVE_BLOCK_STATE.record(start);
+		return result;
+	}
+	
+	private static JsonElement writeBlockState(BlockState state) {
 		BlockState defaultState = state.getBlock().getDefaultState();
 		
 		if (state.equals(defaultState)) {
@@ -84,6 +115,152 @@ public class BlockAndItemSerializers {
 		}
 	}
 	
+	/**
+	 * Saves a run of BlockStates, such as a structure or region, as a palette of the distinct states plus their indices
+	 * bit-packed into longs:
+	 * <pre>{@code
+	 * { "size": 4096, "bits": 2, "palette": [ "minecraft:air", "minecraft:stone", ... ], "data": [ ... ] }
+	 * }</pre>
+	 * Each distinct state is serialized once, however often it appears. Indices don't straddle longs, so each long holds
+	 * {@code 64 / bits} of them, lowest bits first. A palette of one state needs no data at all, and has 0 bits. Null
+	 * entries, such as the ones {@link #getBlockStates} returns for blocks that no longer exist, are saved as a null
+	 * palette entry and read back as null.
+	 */
+	public static JsonObject saveBlockStates(BlockState[] states, Marshaller m) {
+		Map<BlockState, Integer> indices = new IdentityHashMap<>();
+		JsonArray palette = new JsonArray();
+		int[] data = new int[states.length];
+		for(int i=0; i<states.length; i++) {
+			BlockState state = states[i];
+			Integer index = indices.get(state);
+			if (index==null) {
+				index = indices.size();
+				indices.put(state, index);
+				palette.add((state==null) ? JsonNull.INSTANCE : saveBlockState(state, m));
+			}
+			data[i] = index;
+		}
+		
+		int bits = paletteBits(palette.size());
+		JsonObject result = new JsonObject();
+		result.put("size", new JsonPrimitive((long) states.length));
+		result.put("bits", new JsonPrimitive((long) bits));
+		result.put("palette", palette);
+		result.put("data", packIndices(data, bits));
+		return result;
+	}
+	
+	public static JsonObject saveBlockStates(Collection<BlockState> states, Marshaller m) {
+		return saveBlockStates(states.toArray(new BlockState[0]), m);
+	}
+	
+	/**
+	 * Reads BlockStates saved by {@link #saveBlockStates(BlockState[], Marshaller)}. Each palette entry is resolved
+	 * once; positions whose palette entry names a block that no longer exists, or is null, are null.
+	 *
+	 * <p>Everything is checked against the size before anything is allocated for it. A run of a single state has no
+	 * data to check the size against, so it's limited to {@link #MAX_UNIFORM_STATES}.
+	 *
+	 * @return the states, or null if the object isn't a valid saved run of BlockStates.
+	 */
+	public static BlockState[] getBlockStates(JsonObject json, Marshaller m) {
+		JsonElement sizeElement = json.get("size");
+		JsonElement bitsElement = json.get("bits");
+		if (!isNumber(sizeElement) || !isNumber(bitsElement)) return null;
+		if (!(json.get("palette") instanceof JsonArray) || !(json.get("data") instanceof JsonArray)) return null;
+		long size = ((Number) ((JsonPrimitive) sizeElement).getValue()).longValue();
+		long bits = ((Number) ((JsonPrimitive) bitsElement).getValue()).longValue();
+		JsonArray paletteArray = (JsonArray) json.get("palette");
+		JsonArray data = (JsonArray) json.get("data");
+		if (size<0 || size>Integer.MAX_VALUE || bits!=paletteBits(paletteArray.size())) return null;
+		if (size>0 && paletteArray.isEmpty()) return null;
+		if (bits==0) {
+			if (!data.isEmpty() || size>MAX_UNIFORM_STATES) return null;
+		} else {
+			int perLong = 64 / (int) bits;
+			if (data.size() != (size + perLong - 1) / perLong) return null;
+		}
+		
+		BlockState[] palette = new BlockState[paletteArray.size()];
+		for(int i=0; i<palette.length; i++) {
+			JsonElement entry = paletteArray.get(i);
+			if (entry instanceof JsonObject) {
+				palette[i] = getBlockState((JsonObject) entry, m);
+			} else if (entry instanceof JsonPrimitive) {
+				palette[i] = getBlockStatePrimitive(((JsonPrimitive) entry).asString(), m);
+			} else if (entry instanceof JsonNull) {
+				palette[i] = null;
+			} else {
+				return null;
+			}
+		}
+		
+		BlockState[] result = new BlockState[(int) size];
+		if (bits==0) {
+			if (size>0) Arrays.fill(result, palette[0]);
+			return result;
+		}
+		
+		int[] indices = unpackIndices(data, result.length, (int) bits, palette.length);
+		if (indices==null) return null;
+		for(int i=0; i<result.length; i++) {
+			result[i] = palette[indices[i]];
+		}
+		return result;
+	}
+	
+	/**
+	 * Packs palette indices into longs, as many whole {@code bits}-wide indices per long as fit, lowest bits first.
+	 * @return the packed longs, or an empty array if {@code bits} is 0
+	 */
+	static JsonArray packIndices(int[] data, int bits) {
+		JsonArray packed = new JsonArray();
+		if (bits==0) return packed;
+		
+		int perLong = 64 / bits;
+		for(int i=0; i<data.length; i+=perLong) {
+			long value = 0L;
+			for(int j=0; j<perLong && i+j<data.length; j++) {
+				value |= ((long) data[i+j]) << (j * bits);
+			}
+			packed.add(new JsonPrimitive(value));
+		}
+		return packed;
+	}
+	
+	/**
+	 * Reverses {@link #packIndices(int[], int)} for a non-zero {@code bits}.
+	 * @return the indices, or null if {@code data} has the wrong length, isn't all numbers, or has an index outside the
+	 *         palette
+	 */
+	static int[] unpackIndices(JsonArray data, int size, int bits, int paletteSize) {
+		int perLong = 64 / bits;
+		long mask = (1L << bits) - 1;
+		if (data.size() != (size + perLong - 1) / perLong) return null;
+		
+		int[] result = new int[size];
+		for(int i=0; i<data.size(); i++) {
+			JsonElement element = data.get(i);
+			if (!isNumber(element)) return null;
+			long value = ((Number) ((JsonPrimitive) element).getValue()).longValue();
+			for(int j=0; j<perLong && i*perLong+j<size; j++) {
+				int index = (int) ((value >>> (j * bits)) & mask);
+				if (index>=paletteSize) return null;
+				result[i*perLong+j] = index;
+			}
+		}
+		return result;
+	}
+	
+	/** The number of bits each index needs for a palette of the given size; none if there's only one choice. */
+	static int paletteBits(int paletteSize) {
+		return (paletteSize<=1) ? 0 : 32 - Integer.numberOfLeadingZeros(paletteSize - 1);
+	}
+	
+	private static boolean isNumber(JsonElement element) {
+		return element instanceof JsonPrimitive && ((JsonPrimitive) element).getValue() instanceof Number;
+	}
+	
 	public static <T extends Comparable<T>> BlockState withProperty(BlockState state, Property<T> property, String stringValue) {
 		Optional<T> val = property.parse(stringValue);
 		if (val.isPresent()) {
@@ -0,0 +1,66 @@
+package io.github.cottonmc.jankson;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.state.property.Property;
+
+/**
+ * Name-to-Property and string-to-value lookup tables for one Block, so reading a BlockState is a couple of hash
+ * lookups per key instead of a scan over the block's properties and a {@link Property#parse(String)}.
+ *
+ * <p>Indices are built lazily, once per block, and are immutable afterwards.
+ */
+final class BlockPropertyIndex {
+	private static final Map<Block, BlockPropertyIndex> INDICES = new ConcurrentHashMap<>();
+	
+	private final Map<String, Property<?>> properties = new HashMap<>();
+	private final Map<Property<?>, Map<String, Comparable<?>>> values = new HashMap<>();
+	
+	private BlockPropertyIndex(Block block) {
+		for(Property<?> property : block.getStateManager().getProperties()) {
+			properties.put(property.getName(), property);
+			values.put(property, indexValues(property));
+		}
+	}
+	
+	private static <T extends Comparable<T>> Map<String, Comparable<?>> indexValues(Property<T> property) {
+		Map<String, Comparable<?>> result = new HashMap<>();
+		for(T value : property.getValues()) {
+			result.put(property.name(value), value);
+		}
+		return result;
+	}
+	
+	static BlockPropertyIndex of(Block block) {
+		return INDICES.computeIfAbsent(block, BlockPropertyIndex::new);
+	}
+	
+	/**
+	 * @return the property of this block with the given name, or null if there isn't one.
+	 */
+	Property<?> getProperty(String name) {
+		return properties.get(name);
+	}
+	
+	/**
+	 * @return {@code state} with {@code property} set to the value named {@code stringValue},
+	 *         or {@code state} unchanged if that isn't a valid value for the property.
+	 */
+	BlockState with(BlockState state, Property<?> property, String stringValue) {
+		Comparable<?> value = values.get(property).get(stringValue);
+		//Not a canonical name, but the property may still accept it (e.g. "07" for an IntProperty)
+		if (value==null) return BlockAndItemSerializers.withProperty(state, property, stringValue);
+		return withValue(state, property, value);
+	}
+	
+	@SuppressWarnings("unchecked") //Values were read out of this exact property when the index was built
+	private static <T extends Comparable<T>> BlockState withValue(BlockState state, Property<T> property, Comparable<?> value) {
+		T t = (T) value;
+		if (state.get(property)==t) return state;
+		return state.with(property, t);
+	}
+}
@@ -0,0 +1,92 @@
+package io.github.cottonmc.jankson;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.api.Marshaller;
+import net.minecraft.block.BlockState;
+
+/**
+ * An opt-in, bounded cache of {@link BlockAndItemSerializers#saveBlockState(BlockState, Marshaller)} results.
+ *
+ * <p>BlockStates are canonical, so results are keyed by state identity and each state is rendered at most once.
+ * Default states come back as one shared, immutable JsonPrimitive; other states come back as fresh JsonObjects that
+ * share the pre-rendered primitives, so callers can still modify what they're given ({@link #saveFrozenBlockState}
+ * skips even that copy). Once the cache holds {@code maxSize} states, further states are serialized without being
+ * cached. Safe to use from any number of threads.
+ *
+ * <p>To use it in place of the default serializer:
+ * <pre>{@code
+ * BlockStateSerializerCache cache = new BlockStateSerializerCache();
+ * Jankson jankson = JanksonFactory.builder()
+ *     .registerSerializer(BlockState.class, cache::saveBlockState)
+ *     .build();
+ * }</pre>
+ */
+public class BlockStateSerializerCache {
+	public static final int DEFAULT_MAX_SIZE = 4096;
+	
+	private final int maxSize;
+	private final ConcurrentHashMap<BlockState, JsonElement> rendered = new ConcurrentHashMap<>();
+	
+	public BlockStateSerializerCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+	
+	public BlockStateSerializerCache(int maxSize) {
+		if (maxSize<0) throw new IllegalArgumentException("maxSize cannot be negative: "+maxSize);
+		this.maxSize = maxSize;
+	}
+	
+	public JsonElement saveBlockState(BlockState state, Marshaller m) {
+		JsonElement result = rendered.get(state);
+		if (result==null) {
+			result = BlockAndItemSerializers.saveBlockState(state, m);
+			if (rendered.size() < maxSize) {
+				JsonElement existing = rendered.putIfAbsent(state, FrozenJson.freeze(result));
+				if (existing!=null) result = existing;
+			} else {
+				return result;
+			}
+		}
+		
+		return (result instanceof JsonObject) ? copyStructure((JsonObject) result) : result;
+	}
+	
+	/**
+	 * Like {@link #saveBlockState(BlockState, Marshaller)}, but returns the cached rendering itself, frozen (see
+	 * {@link FrozenJson}), rather than a modifiable copy. Use this when the result is only going to be read or written
+	 * out.
+	 */
+	public JsonElement saveFrozenBlockState(BlockState state, Marshaller m) {
+		JsonElement result = rendered.get(state);
+		if (result==null) {
+			result = FrozenJson.freeze(BlockAndItemSerializers.saveBlockState(state, m));
+			if (rendered.size() < maxSize) {
+				JsonElement existing = rendered.putIfAbsent(state, result);
+				if (existing!=null) result = existing;
+			}
+		}
+		return result;
+	}
+	
+	/** Copies the objects in a rendered state, sharing the (immutable) primitives inside them. */
+	private static JsonObject copyStructure(JsonObject obj) {
+		JsonObject result = new JsonObject();
+		for(Map.Entry<String, JsonElement> entry : obj.entrySet()) {
+			JsonElement value = entry.getValue();
+			result.put(entry.getKey(), (value instanceof JsonObject) ? copyStructure((JsonObject) value) : value);
+		}
+		return result;
+	}
+	
+	public int size() {
+		return rendered.size();
+	}
+	
+	public void clear() {
+		rendered.clear();
+	}
+}
@@ -0,0 +1,69 @@
+package io.github.cottonmc.jankson;
+
+import java.util.function.BiFunction;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import blue.endless.jankson.api.DeserializationException;
+import blue.endless.jankson.api.DeserializerFunction;
+import blue.endless.jankson.api.Marshaller;
+import com.mojang.serialization.Codec;
+
+/**
+ * The Jankson serializer and deserializers for one codec-backed type. They're created once per registration, so
+ * (de)serializing a value is a class lookup in the Marshaller followed by a straight call into the codec.
+ *
+ * <p>Jankson picks a deserializer by the kind of element it's given, and for primitives by the class of the value
+ * inside, so one is registered for each shape a codec might accept. The ones for primitive values rewrap the value so
+ * the codec still sees the element it would have been given by {@link JanksonOps}. Jankson matches the element's exact
+ * class, so the {@linkplain FrozenJson frozen} containers that deduplicated trees are made of are registered too.
+ */
+final class CodecAdapter<T> {
+	private final Codec<T> codec;
+	private final JanksonOps ops;
+
+	private final DeserializerFunction<JsonObject, T> fromObject = this::decode;
+	private final DeserializerFunction<JsonArray, T> fromArray = this::decode;
+	private final DeserializerFunction<FrozenJsonObject, T> fromFrozenObject = this::decode;
+	private final DeserializerFunction<FrozenJsonArray, T> fromFrozenArray = this::decode;
+	private final DeserializerFunction<JsonPrimitive, T> fromPrimitive = this::decode;
+	private final DeserializerFunction<String, T> fromString = (s, m) -> decode(JsonPrimitives.of(s), m);
+	private final DeserializerFunction<Long, T> fromLong = (l, m) -> decode(JsonPrimitives.of((long) l), m);
+	private final DeserializerFunction<Double, T> fromDouble = (d, m) -> decode(JsonPrimitives.of((double) d), m);
+	private final DeserializerFunction<Boolean, T> fromBoolean = (b, m) -> decode(b ? JsonPrimitive.TRUE : JsonPrimitive.FALSE, m);
+	private final BiFunction<T, Marshaller, JsonElement> serializer = this::encode;
+
+	CodecAdapter(Codec<T> codec, JanksonOps ops) {
+		this.codec = codec;
+		this.ops = ops;
+	}
+
+	void register(Jankson.Builder builder, Class<T> clazz) {
+		builder
+			.registerDeserializer(JsonObject.class, clazz, fromObject)
+			.registerDeserializer(JsonArray.class, clazz, fromArray)
+			.registerDeserializer(FrozenJsonObject.class, clazz, fromFrozenObject)
+			.registerDeserializer(FrozenJsonArray.class, clazz, fromFrozenArray)
+			.registerDeserializer(JsonPrimitive.class, clazz, fromPrimitive)
+			.registerDeserializer(String.class, clazz, fromString)
+			.registerDeserializer(Long.class, clazz, fromLong)
+			.registerDeserializer(Double.class, clazz, fromDouble)
+			.registerDeserializer(Boolean.class, clazz, fromBoolean)
+			.registerSerializer(clazz, serializer);
+	}
+
+	private T decode(JsonElement element, Marshaller m) throws DeserializationException {
+		return codec.parse(ops, element).getOrThrow(DeserializationException::new);
+	}
+
+	/**
+	 * Jankson's serializers can't throw checked exceptions, so a value the codec can't encode fails with an unchecked
+	 * one carrying the codec's error, rather than being written as something the codec wouldn't read back.
+	 */
+	private JsonElement encode(T value, Marshaller m) {
+		return codec.encodeStart(ops, value).getOrThrow(error -> new IllegalArgumentException("Couldn't encode "+value+": "+error));
+	}
+}
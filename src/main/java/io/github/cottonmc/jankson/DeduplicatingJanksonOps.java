@@ -0,0 +1,47 @@
+package io.github.cottonmc.jankson;
+
+import blue.endless.jankson.JsonElement;
+import com.mojang.serialization.DataResult;
+
+/**
+ * A {@link JanksonOps} that runs what it creates and reads through a {@link JsonDeduplicator}: encoded strings and
+ * small maps, whether created directly or built by codecs through {@link #mapBuilder()}, are shared between everything
+ * encoded with it, and strings decoded with it are interned, so decoded objects don't each hold their own copy of the
+ * same ids.
+ *
+ * <p>Small maps come back {@linkplain FrozenJson frozen}; JanksonOps itself never modifies a map it's been given.
+ */
+public class DeduplicatingJanksonOps extends JanksonOps {
+	private final JsonDeduplicator deduplicator;
+	
+	public DeduplicatingJanksonOps(JsonDeduplicator deduplicator) {
+		this(deduplicator, false);
+	}
+	
+	/**
+	 * @param compressed see {@link JanksonOps#JanksonOps(boolean)}
+	 */
+	public DeduplicatingJanksonOps(JsonDeduplicator deduplicator, boolean compressed) {
+		super(compressed);
+		this.deduplicator = deduplicator;
+	}
+	
+	public JsonDeduplicator getDeduplicator() {
+		return deduplicator;
+	}
+	
+	@Override
+	public JsonElement createString(String value) {
+		return deduplicator.primitive(value);
+	}
+	
+	@Override
+	public DataResult<String> getStringValue(JsonElement input) {
+		return super.getStringValue(input).map(deduplicator::intern);
+	}
+	
+	@Override
+	protected JsonElement finishMap(JsonElement map) {
+		return deduplicator.canonicalize(map);
+	}
+}
@@ -0,0 +1,147 @@
+package io.github.cottonmc.jankson;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.MapLike;
+
+/**
+ * The array-backed map representation {@link JanksonOps#COMPRESSED} uses: a flat JsonArray of alternating keys and
+ * values, {@code [k0, v0, k1, v1, ...]}, wrapped in an object with the single key {@value #ENTRIES_KEY}. Keys may be
+ * any primitive, and are compared by their string form.
+ *
+ * <p>Records never reach this: under {@code compressMaps()} DFU already encodes them as lists positioned by
+ * {@link com.mojang.serialization.KeyCompressor} index. This covers the maps whose keys aren't known up front, such as
+ * {@code Codec.unboundedMap}, writing them without building a keyed, hashed JsonObject.
+ *
+ * <p>The wrapper is what tells a map apart from a list, in memory and after being written out as text and parsed again
+ * alike: a list is always an array, so a codec that accepts either gets the same answer as with any other ops, and
+ * converting to other ops turns the wrapper back into a map. Objects without the wrapper, such as maps written before
+ * compression used this format, are still read as ordinary keyed maps.
+ */
+final class FlatJsonMap implements MapLike<JsonElement> {
+	static final String ENTRIES_KEY = "$entries";
+
+	private final JsonArray array;
+
+	FlatJsonMap(JsonArray array) {
+		this.array = array;
+	}
+
+	/**
+	 * @return the array of alternating primitive keys and values that {@code element} wraps, or null if it isn't a flat
+	 *         map
+	 */
+	static JsonArray entriesOf(JsonElement element) {
+		if (!(element instanceof JsonObject)) return null;
+		JsonObject obj = (JsonObject) element;
+		if (obj.size()!=1 || !(obj.get(ENTRIES_KEY) instanceof JsonArray)) return null;
+		JsonArray array = (JsonArray) obj.get(ENTRIES_KEY);
+		if (array.size() % 2 != 0) return null;
+		for(int i=0; i<array.size(); i+=2) {
+			if (!isValidKey(array.get(i))) return null;
+		}
+		return array;
+	}
+
+	/**
+	 * @return a flat map of the key/value pairs in {@code entries}, which it takes ownership of
+	 */
+	static JsonObject wrap(JsonArray entries) {
+		JsonObject result = new JsonObject();
+		result.put(ENTRIES_KEY, entries);
+		return result;
+	}
+
+	static boolean isValidKey(JsonElement key) {
+		return key instanceof JsonPrimitive;
+	}
+
+	/**
+	 * @return a new flat map with the entries of {@code base} (which may be null) followed by the key/value pairs in
+	 *         {@code additions}. A key that's already present keeps its position and takes the new value. Both are
+	 *         unwrapped entries arrays, and must only have primitive keys; see {@link #entriesOf(JsonElement)}.
+	 */
+	static JsonObject merge(JsonArray base, JsonArray additions) {
+		JsonArray result = new JsonArray();
+		Map<String, Integer> positions = new HashMap<>();
+		if (base!=null) append(result, positions, base);
+		append(result, positions, additions);
+		return wrap(result);
+	}
+
+	private static void append(JsonArray result, Map<String, Integer> positions, JsonArray entries) {
+		for(int i=0; i+1<entries.size(); i+=2) {
+			JsonElement key = entries.get(i);
+			JsonElement value = entries.get(i+1);
+			Integer existing = positions.get(((JsonPrimitive) key).asString());
+			if (existing!=null) {
+				result.set(existing + 1, value);
+			} else {
+				positions.put(((JsonPrimitive) key).asString(), result.size());
+				result.add(key);
+				result.add(value);
+			}
+		}
+	}
+
+	/**
+	 * @return a new flat map with the entries of {@code map} (an unwrapped entries array) except {@code key}
+	 */
+	static JsonObject without(JsonArray map, String key) {
+		JsonArray result = new JsonArray();
+		for(int i=0; i+1<map.size(); i+=2) {
+			JsonElement candidate = map.get(i);
+			if (candidate instanceof JsonPrimitive && ((JsonPrimitive) candidate).asString().equals(key)) continue;
+			result.add(candidate);
+			result.add(map.get(i+1));
+		}
+		return wrap(result);
+	}
+
+	static void forEachEntry(JsonArray array, BiConsumer<JsonElement, JsonElement> consumer) {
+		for(int i=0; i+1<array.size(); i+=2) {
+			consumer.accept(array.get(i), array.get(i+1));
+		}
+	}
+
+	static Stream<Pair<JsonElement, JsonElement>> entryStream(JsonArray array) {
+		return IntStream.range(0, array.size() / 2)
+				.mapToObj(i -> Pair.of(array.get(i * 2), array.get(i * 2 + 1)));
+	}
+
+	@Override
+	public JsonElement get(JsonElement key) {
+		if (!(key instanceof JsonPrimitive)) return null;
+		return get(((JsonPrimitive) key).asString());
+	}
+
+	@Override
+	public JsonElement get(String key) {
+		for(int i=0; i+1<array.size(); i+=2) {
+			JsonElement candidate = array.get(i);
+			if (candidate instanceof JsonPrimitive && ((JsonPrimitive) candidate).asString().equals(key)) {
+				return array.get(i+1);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Stream<Pair<JsonElement, JsonElement>> entries() {
+		return entryStream(array);
+	}
+
+	@Override
+	public String toString() {
+		return "MapLike[" + array + "]";
+	}
+}
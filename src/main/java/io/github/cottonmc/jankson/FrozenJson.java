@@ -0,0 +1,59 @@
+package io.github.cottonmc.jankson;
+
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonNull;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+
+/**
+ * Deeply immutable Jankson trees, for sharing decoded data between threads without defensive copies.
+ *
+ * <p>A frozen tree is still made of JsonObjects and JsonArrays, so it can go anywhere a regular one can, but every
+ * method that would modify it throws {@link UnsupportedOperationException}. Frozen containers are fully built before
+ * they're returned, so they can be published to other threads through a plain field, and their hash codes are worked
+ * out once up front. {@code clone()} still returns an ordinary mutable copy.
+ *
+ * <p>{@link JanksonOps} hands frozen input back unchanged when converting to itself, instead of rebuilding it.
+ */
+public final class FrozenJson {
+	private FrozenJson() {}
+
+	/**
+	 * @return a frozen copy of {@code element}. Parts of it that are already frozen, including the whole thing, are
+	 *         reused rather than copied.
+	 */
+	public static JsonElement freeze(JsonElement element) {
+		if (element instanceof JsonObject) {
+			return freeze((JsonObject) element);
+		} else if (element instanceof JsonArray) {
+			return freeze((JsonArray) element);
+		} else if (element==null) {
+			return JsonNull.INSTANCE;
+		}
+		//Primitives and null are already immutable
+		return element;
+	}
+
+	public static JsonObject freeze(JsonObject obj) {
+		return (obj instanceof FrozenJsonObject) ? obj : new FrozenJsonObject(obj);
+	}
+
+	public static JsonArray freeze(JsonArray array) {
+		return (array instanceof FrozenJsonArray) ? array : new FrozenJsonArray(array);
+	}
+
+	/**
+	 * @return true if {@code element} and everything inside it can no longer be modified
+	 */
+	public static boolean isFrozen(JsonElement element) {
+		return element instanceof FrozenJsonObject
+				|| element instanceof FrozenJsonArray
+				|| element instanceof JsonPrimitive
+				|| element instanceof JsonNull;
+	}
+
+	static UnsupportedOperationException modified() {
+		return new UnsupportedOperationException("Frozen JSON can't be modified; clone() it to get a mutable copy");
+	}
+}
@@ -0,0 +1,156 @@
+package io.github.cottonmc.jankson;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+
+/**
+ * A JsonArray that can't be modified once constructed. See {@link FrozenJson}.
+ *
+ * <p>The elements are stored by JsonArray as usual, so it serializes exactly like the array it was made from, and
+ * also in an unmodifiable list that backs iteration and lookups.
+ */
+final class FrozenJsonArray extends JsonArray {
+	private final List<JsonElement> contents;
+	private final int hash;
+	/** False while the constructor is filling in the elements through JsonArray's own methods. */
+	private final boolean sealed;
+
+	FrozenJsonArray(JsonArray source) {
+		//Assigned first and kept in step with JsonArray, in case JsonArray's methods call back into the ones here
+		List<JsonElement> contents = new ArrayList<>(source.size());
+		this.contents = Collections.unmodifiableList(contents);
+		for(int i=0; i<source.size(); i++) {
+			JsonElement value = FrozenJson.freeze(source.get(i));
+			super.add(value, source.getComment(i));
+			contents.add(value);
+		}
+		this.hash = super.hashCode();
+		this.sealed = true;
+		//JsonArray's own fields aren't final; make sure they're visible to any thread that can see this object
+		VarHandle.releaseFence();
+	}
+
+	private void checkMutable() {
+		if (sealed) throw FrozenJson.modified();
+	}
+
+	@Override
+	public int size() {
+		return contents.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return contents.isEmpty();
+	}
+
+	@Override
+	public JsonElement get(int index) {
+		return contents.get(index);
+	}
+
+	@Override
+	public Iterator<JsonElement> iterator() {
+		return contents.iterator();
+	}
+
+	@Override
+	public ListIterator<JsonElement> listIterator() {
+		return contents.listIterator();
+	}
+
+	@Override
+	public ListIterator<JsonElement> listIterator(int index) {
+		return contents.listIterator(index);
+	}
+
+	@Override
+	public List<JsonElement> subList(int fromIndex, int toIndex) {
+		return contents.subList(fromIndex, toIndex);
+	}
+
+	@Override
+	public boolean add(JsonElement e) {
+		checkMutable();
+		return super.add(e);
+	}
+
+	@Override
+	public boolean add(JsonElement e, String comment) {
+		checkMutable();
+		return super.add(e, comment);
+	}
+
+	@Override
+	public void add(int index, JsonElement element) {
+		checkMutable();
+		super.add(index, element);
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends JsonElement> c) {
+		checkMutable();
+		return super.addAll(c);
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends JsonElement> c) {
+		checkMutable();
+		return super.addAll(index, c);
+	}
+
+	@Override
+	public JsonElement set(int index, JsonElement element) {
+		checkMutable();
+		return super.set(index, element);
+	}
+
+	@Override
+	public void setComment(int index, String comment) {
+		checkMutable();
+		super.setComment(index, comment);
+	}
+
+	@Override
+	public JsonElement remove(int index) {
+		checkMutable();
+		return super.remove(index);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		checkMutable();
+		return super.remove(o);
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		checkMutable();
+		return super.removeAll(c);
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		checkMutable();
+		return super.retainAll(c);
+	}
+
+	@Override
+	public void clear() {
+		checkMutable();
+		super.clear();
+	}
+
+	@Override
+	public int hashCode() {
+		return sealed ? hash : super.hashCode();
+	}
+}
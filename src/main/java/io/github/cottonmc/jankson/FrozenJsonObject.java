@@ -0,0 +1,142 @@
+package io.github.cottonmc.jankson;
+
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+
+/**
+ * A JsonObject that can't be modified once constructed. See {@link FrozenJson}.
+ *
+ * <p>The entries are stored by JsonObject as usual, so it serializes exactly like the object it was made from, and
+ * also in an unmodifiable map that backs the Map views and lookups.
+ */
+final class FrozenJsonObject extends JsonObject {
+	private final Map<String, JsonElement> contents;
+	private final int hash;
+	/** False while the constructor is filling in the entries through JsonObject's own methods. */
+	private final boolean sealed;
+
+	FrozenJsonObject(JsonObject source) {
+		//Assigned first and kept in step with JsonObject, in case JsonObject's methods call back into the ones here
+		Map<String, JsonElement> contents = new LinkedHashMap<>();
+		this.contents = Collections.unmodifiableMap(contents);
+		for(Map.Entry<String, JsonElement> entry : source.entrySet()) {
+			JsonElement value = FrozenJson.freeze(entry.getValue());
+			super.put(entry.getKey(), value, source.getComment(entry.getKey()));
+			contents.put(entry.getKey(), value);
+		}
+		this.hash = super.hashCode();
+		this.sealed = true;
+		//JsonObject's own fields aren't final; make sure they're visible to any thread that can see this object
+		VarHandle.releaseFence();
+	}
+
+	private void checkMutable() {
+		if (sealed) throw FrozenJson.modified();
+	}
+
+	@Override
+	public int size() {
+		return contents.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return contents.isEmpty();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return contents.containsKey(key);
+	}
+
+	@Override
+	public JsonElement get(Object key) {
+		return contents.get(key);
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return contents.keySet();
+	}
+
+	@Override
+	public Collection<JsonElement> values() {
+		return contents.values();
+	}
+
+	@Override
+	public Set<Map.Entry<String, JsonElement>> entrySet() {
+		return contents.entrySet();
+	}
+
+	@Override
+	public JsonElement put(String key, JsonElement elem) {
+		checkMutable();
+		return super.put(key, elem);
+	}
+
+	@Override
+	public JsonElement put(String key, JsonElement elem, String comment) {
+		checkMutable();
+		return super.put(key, elem, comment);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends JsonElement> map) {
+		checkMutable();
+		super.putAll(map);
+	}
+
+	@Override
+	public void setComment(String name, String comment) {
+		checkMutable();
+		super.setComment(name, comment);
+	}
+
+	@Override
+	public JsonElement putDefault(String key, JsonElement elem, String comment) {
+		checkMutable();
+		return super.putDefault(key, elem, comment);
+	}
+
+	@Override
+	public <T> T putDefault(String key, T elem, Class<? extends T> clazz, String comment) {
+		checkMutable();
+		return super.putDefault(key, elem, clazz, comment);
+	}
+
+	@Override
+	public <E extends JsonElement> E recursiveGetOrCreate(Class<E> clazz, String key, E fallback, String comment) {
+		if (sealed) {
+			//Fine as a read, as long as nothing along the path needs creating
+			E existing = super.recursiveGet(clazz, key);
+			if (existing!=null) return existing;
+			throw FrozenJson.modified();
+		}
+		return super.recursiveGetOrCreate(clazz, key, fallback, comment);
+	}
+
+	@Override
+	public JsonElement remove(Object key) {
+		checkMutable();
+		return super.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		checkMutable();
+		super.clear();
+	}
+
+	@Override
+	public int hashCode() {
+		return sealed ? hash : super.hashCode();
+	}
+}
@@ -0,0 +1,166 @@
+package io.github.cottonmc.jankson;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.api.SyntaxError;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.Decoder;
+
+/**
+ * Parses and decodes many Jankson files at once, on a bounded pool of worker threads.
+ *
+ * <p>A Jankson instance keeps its parser state in itself, so it can't be shared between threads. Instead each worker
+ * gets its own from the supplied factory; with {@link JanksonFactory#createJankson()} these all share one prebuilt set
+ * of serializers. Results come back in a deterministic order regardless of which file finished first, and a file that
+ * fails to read, parse or decode produces an error result without affecting the others.
+ */
+public class JanksonBatchLoader {
+	private static final AtomicInteger THREAD_ID = new AtomicInteger();
+	private static final ThreadFactory WORKER_FACTORY = task -> {
+		Thread thread = new Thread(task, "Jankson Loader #"+THREAD_ID.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	};
+
+	private final Supplier<Jankson> janksonFactory;
+	private final JanksonOps ops;
+	private final int parallelism;
+
+	public JanksonBatchLoader() {
+		this(JanksonFactory::createJankson, JanksonOps.INSTANCE, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param janksonFactory creates the Jankson each worker thread parses with
+	 * @param ops            the ops files are decoded through
+	 * @param parallelism    the most files that will be processed at once
+	 */
+	public JanksonBatchLoader(Supplier<Jankson> janksonFactory, JanksonOps ops, int parallelism) {
+		if (parallelism<1) throw new IllegalArgumentException("parallelism must be at least 1, got "+parallelism);
+		this.janksonFactory = janksonFactory;
+		this.ops = ops;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Loads every {@code .json} and {@code .json5} file under a directory, recursively.
+	 * @return each file's result, ordered by path
+	 */
+	public <A> Map<Path, DataResult<A>> load(Path directory, Decoder<A> decoder) throws IOException {
+		List<Path> files;
+		try (Stream<Path> stream = Files.walk(directory)) {
+			files = stream
+					.filter(Files::isRegularFile)
+					.filter(JanksonBatchLoader::isJsonFile)
+					.sorted()
+					.collect(Collectors.toList());
+		}
+		return load(files, decoder);
+	}
+
+	/**
+	 * Loads each of the given files.
+	 * @return each file's result, in the order the files were given
+	 */
+	public <A> Map<Path, DataResult<A>> load(List<Path> files, Decoder<A> decoder) {
+		Map<Path, DataResult<A>> results = new LinkedHashMap<>();
+		if (files.isEmpty()) return results;
+
+		int threads = Math.min(parallelism, files.size());
+		ThreadLocal<Jankson> jankson = ThreadLocal.withInitial(janksonFactory);
+		ExecutorService executor = Executors.newFixedThreadPool(threads, WORKER_FACTORY);
+		try {
+			List<CompletableFuture<DataResult<A>>> futures = new ArrayList<>(files.size());
+			for(Path file : files) {
+				futures.add(CompletableFuture.supplyAsync(() -> loadFile(jankson.get(), ops, file, decoder), executor));
+			}
+
+			for(int i=0; i<files.size(); i++) {
+				results.put(files.get(i), futures.get(i).join());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		return results;
+	}
+
+	/**
+	 * Reads, parses and decodes a single file, capturing any failure as an error result.
+	 */
+	static <A> DataResult<A> loadFile(Jankson jankson, JanksonOps ops, Path file, Decoder<A> decoder) {
+		String text;
+		try {
+			text = Files.readString(file);
+		} catch (IOException e) {
+			return DataResult.error(() -> "Couldn't read "+file+": "+e);
+		}
+
+		return decode(jankson, ops, file, text, decoder);
+	}
+
+	/**
+	 * Parses and decodes the contents of a file, capturing any failure as an error result.
+	 */
+	static <A> DataResult<A> decode(Jankson jankson, JanksonOps ops, Path file, String text, Decoder<A> decoder) {
+		JanksonMetrics.ParseEvent parseEvent = new JanksonMetrics.ParseEvent();
+		parseEvent.begin();
+		long start = JanksonMetrics.ENABLED ? System.nanoTime() : 0L;
+		JsonElement element;
+		try {
+			element = jankson.loadElement(text);
+		} catch (SyntaxError e) {
+			return DataResult.error(() -> "Couldn't parse "+file+": "+e.getCompleteMessage());
+		} catch (RuntimeException e) {
+			return DataResult.error(() -> "Couldn't load "+file+": "+e);
+		} finally {
+			if (JanksonMetrics.ENABLED) JanksonMetrics.FILE_PARSES.record(start);
+			parseEvent.end();
+			if (parseEvent.shouldCommit()) {
+				parseEvent.file = file.toString();
+				parseEvent.length = text.length();
+				parseEvent.commit();
+			}
+		}
+
+		JanksonMetrics.DecodeEvent decodeEvent = new JanksonMetrics.DecodeEvent();
+		decodeEvent.begin();
+		start = JanksonMetrics.ENABLED ? System.nanoTime() : 0L;
+		DataResult<A> result;
+		try {
+			result = decoder.parse(ops, element).mapError(error -> file+": "+error);
+		} catch (RuntimeException e) {
+			//Codecs built from xmap and friends can throw; keep that from taking down the rest of the batch
+			result = DataResult.error(() -> "Couldn't decode "+file+": "+e);
+		}
+		if (JanksonMetrics.ENABLED) JanksonMetrics.FILE_DECODES.record(start);
+		decodeEvent.end();
+		if (decodeEvent.shouldCommit()) {
+			decodeEvent.file = file.toString();
+			decodeEvent.succeeded = result.result().isPresent();
+			decodeEvent.commit();
+		}
+		return result;
+	}
+
+	static boolean isJsonFile(Path path) {
+		String name = path.getFileName().toString();
+		return name.endsWith(".json") || name.endsWith(".json5");
+	}
+}
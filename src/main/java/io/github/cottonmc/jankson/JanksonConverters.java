@@ -0,0 +1,126 @@
+package io.github.cottonmc.jankson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import net.minecraft.nbt.NbtByte;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtDouble;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtEnd;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtLong;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.NbtString;
+
+/**
+ * Single-pass, recursive conversions from Jankson trees to the trees of the most common other DynamicOps. Each produces
+ * exactly what {@code DynamicOps.convertTo} would through the generic map and list machinery, without the intermediate
+ * streams and pairs.
+ *
+ * <p>{@code compressed} is whether the input came from a compressed JanksonOps, in which case its
+ * {@linkplain FlatJsonMap flat maps} become ordinary keyed maps.
+ */
+final class JanksonConverters {
+	private JanksonConverters() {}
+	
+	/** Converts to the Gson tree {@link com.mojang.serialization.JsonOps} works with. */
+	static com.google.gson.JsonElement toGson(JsonElement input, boolean compressed) {
+		JsonArray entries = compressed ? FlatJsonMap.entriesOf(input) : null;
+		if (entries!=null) {
+			//JsonOps reads maps from objects even when compressed
+			com.google.gson.JsonObject result = new com.google.gson.JsonObject();
+			FlatJsonMap.forEachEntry(entries, (key, value) -> result.add(((JsonPrimitive) key).asString(), toGson(value, compressed)));
+			return result;
+		} else if (input instanceof JsonObject) {
+			com.google.gson.JsonObject result = new com.google.gson.JsonObject();
+			for(Map.Entry<String, JsonElement> entry : ((JsonObject) input).entrySet()) {
+				result.add(entry.getKey(), toGson(entry.getValue(), compressed));
+			}
+			return result;
+		} else if (input instanceof JsonArray) {
+			JsonArray array = (JsonArray) input;
+			com.google.gson.JsonArray result = new com.google.gson.JsonArray(array.size());
+			for(JsonElement element : array) {
+				result.add(toGson(element, compressed));
+			}
+			return result;
+		} else if (input instanceof JsonPrimitive) {
+			Object value = ((JsonPrimitive) input).getValue();
+			if (value instanceof Number) {
+				return new com.google.gson.JsonPrimitive((Number) value);
+			} else if (value instanceof Boolean) {
+				return new com.google.gson.JsonPrimitive((Boolean) value);
+			} else if (value instanceof String) {
+				return new com.google.gson.JsonPrimitive((String) value);
+			}
+		}
+		
+		return com.google.gson.JsonNull.INSTANCE;
+	}
+	
+	/** Converts to the NBT tree {@link NbtOps} works with. */
+	static NbtElement toNbt(JsonElement input, boolean compressed) {
+		JsonArray entries = compressed ? FlatJsonMap.entriesOf(input) : null;
+		if (entries!=null) {
+			NbtCompound result = new NbtCompound();
+			FlatJsonMap.forEachEntry(entries, (key, value) -> result.put(((JsonPrimitive) key).asString(), toNbt(value, compressed)));
+			return result;
+		} else if (input instanceof JsonObject) {
+			NbtCompound result = new NbtCompound();
+			for(Map.Entry<String, JsonElement> entry : ((JsonObject) input).entrySet()) {
+				result.put(entry.getKey(), toNbt(entry.getValue(), compressed));
+			}
+			return result;
+		} else if (input instanceof JsonArray) {
+			return toNbtList((JsonArray) input, compressed);
+		} else if (input instanceof JsonPrimitive) {
+			Object value = ((JsonPrimitive) input).getValue();
+			if (value instanceof Long) {
+				return NbtLong.of((Long) value);
+			} else if (value instanceof Double) {
+				return NbtDouble.of((Double) value);
+			} else if (value instanceof Number) {
+				//Jankson widens integers to Long and floats to Double, so this is only BigInteger
+				return NbtOps.INSTANCE.createNumeric((Number) value);
+			} else if (value instanceof Boolean) {
+				return NbtByte.of((Boolean) value);
+			} else if (value instanceof String) {
+				return NbtString.of((String) value);
+			}
+		}
+		
+		return NbtEnd.INSTANCE;
+	}
+	
+	private static NbtElement toNbtList(JsonArray array, boolean compressed) {
+		List<NbtElement> elements = new ArrayList<>(array.size());
+		byte type = NbtElement.END_TYPE;
+		boolean homogeneous = true;
+		for(JsonElement element : array) {
+			NbtElement converted = toNbt(element, compressed);
+			if (elements.isEmpty()) {
+				type = converted.getType();
+			} else if (converted.getType()!=type) {
+				homogeneous = false;
+			}
+			elements.add(converted);
+		}
+		
+		if (elements.isEmpty()) return new NbtList();
+		
+		//NbtOps turns byte/int/long lists into arrays and wraps mixed lists in compounds; let it make those calls
+		if (!homogeneous || type==NbtElement.END_TYPE || type==NbtElement.BYTE_TYPE || type==NbtElement.INT_TYPE || type==NbtElement.LONG_TYPE) {
+			return NbtOps.INSTANCE.createList(elements.stream());
+		}
+		
+		NbtList result = new NbtList();
+		result.addAll(elements);
+		return result;
+	}
+}
@@ -3,28 +3,38 @@ package io.github.cottonmc.jankson;
 import net.minecraft.advancement.criterion.Criterion;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
+import net.minecraft.block.entity.BannerPattern;
 import net.minecraft.block.entity.BlockEntityType;
+import net.minecraft.block.jukebox.JukeboxSong;
 import net.minecraft.command.argument.serialize.ArgumentSerializer;
+import net.minecraft.enchantment.Enchantment;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.ai.brain.Activity;
 import net.minecraft.entity.ai.brain.MemoryModuleType;
 import net.minecraft.entity.ai.brain.Schedule;
 import net.minecraft.entity.ai.brain.sensor.SensorType;
 import net.minecraft.entity.attribute.EntityAttribute;
+import net.minecraft.entity.damage.DamageType;
+import net.minecraft.entity.decoration.painting.PaintingVariant;
 import net.minecraft.entity.effect.StatusEffect;
 import net.minecraft.entity.passive.CatVariant;
 import net.minecraft.entity.passive.FrogVariant;
+import net.minecraft.entity.passive.WolfVariant;
 import net.minecraft.fluid.Fluid;
+import net.minecraft.item.Instrument;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemGroup;
 import net.minecraft.item.consume.ConsumeEffect;
 import net.minecraft.item.map.MapDecorationType;
+import net.minecraft.item.trim.ArmorTrimMaterial;
+import net.minecraft.item.trim.ArmorTrimPattern;
 import net.minecraft.loot.condition.LootConditionType;
 import net.minecraft.loot.entry.LootPoolEntryType;
 import net.minecraft.loot.function.LootFunctionType;
 import net.minecraft.loot.provider.nbt.LootNbtProviderType;
 import net.minecraft.loot.provider.number.LootNumberProviderType;
 import net.minecraft.loot.provider.score.LootScoreProviderType;
+import net.minecraft.network.message.MessageType;
 import net.minecraft.particle.ParticleType;
 import net.minecraft.potion.Potion;
 import net.minecraft.predicate.item.ItemSubPredicate;
@@ -33,13 +43,17 @@ import net.minecraft.recipe.RecipeType;
 import net.minecraft.recipe.book.RecipeBookCategory;
 import net.minecraft.recipe.display.RecipeDisplay;
 import net.minecraft.recipe.display.SlotDisplay;
+import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
 import net.minecraft.scoreboard.number.NumberFormatType;
 import net.minecraft.screen.ScreenHandlerType;
 import net.minecraft.sound.SoundEvent;
 import net.minecraft.stat.StatType;
 import net.minecraft.structure.StructurePieceType;
+import net.minecraft.structure.StructureSet;
 import net.minecraft.structure.pool.StructurePoolElementType;
 import net.minecraft.structure.processor.StructureProcessorType;
 import net.minecraft.structure.rule.PosRuleTestType;
@@ -50,133 +64,238 @@ import net.minecraft.util.math.floatprovider.FloatProviderType;
 import net.minecraft.util.math.intprovider.IntProviderType;
 import net.minecraft.village.VillagerProfession;
 import net.minecraft.village.VillagerType;
+import net.minecraft.world.biome.Biome;
 import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.dimension.DimensionType;
 import net.minecraft.world.event.GameEvent;
 import net.minecraft.world.event.PositionSourceType;
 import net.minecraft.world.gen.blockpredicate.BlockPredicateType;
 import net.minecraft.world.gen.carver.Carver;
 import net.minecraft.world.gen.chunk.placement.StructurePlacementType;
+import net.minecraft.world.gen.feature.ConfiguredFeature;
 import net.minecraft.world.gen.feature.Feature;
+import net.minecraft.world.gen.feature.PlacedFeature;
 import net.minecraft.world.gen.feature.size.FeatureSizeType;
 import net.minecraft.world.gen.foliage.FoliagePlacerType;
 import net.minecraft.world.gen.heightprovider.HeightProviderType;
 import net.minecraft.world.gen.placementmodifier.PlacementModifierType;
 import net.minecraft.world.gen.root.RootPlacerType;
 import net.minecraft.world.gen.stateprovider.BlockStateProviderType;
+import net.minecraft.world.gen.structure.Structure;
 import net.minecraft.world.gen.structure.StructureType;
 import net.minecraft.world.gen.treedecorator.TreeDecoratorType;
 import net.minecraft.world.gen.trunk.TrunkPlacerType;
 import net.minecraft.world.poi.PointOfInterestType;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 import blue.endless.jankson.Jankson;
 import blue.endless.jankson.JsonElement;
-import blue.endless.jankson.JsonNull;
 import blue.endless.jankson.JsonObject;
 import blue.endless.jankson.JsonPrimitive;
+import blue.endless.jankson.api.DeserializerFunction;
+import blue.endless.jankson.api.Marshaller;
+import com.mojang.serialization.Codec;
 
 public class JanksonFactory {
 	public static Jankson.Builder builder() {
 		Jankson.Builder builder = Jankson.builder();
-				
-		builder
-			.registerDeserializer(String.class, BlockState.class, BlockAndItemSerializers::getBlockStatePrimitive)
-			.registerDeserializer(JsonObject.class, BlockState.class, BlockAndItemSerializers::getBlockState)
-			.registerSerializer(BlockState.class, BlockAndItemSerializers::saveBlockState);
+		for(Consumer<Jankson.Builder> registration : Prototype.REGISTRATIONS) {
+			registration.accept(builder);
+		}
+		return builder;
+	}
+	
+	/**
+	 * Like {@link #builder()}, but also able to (de)serialize entries of the dynamic registries in {@code registries},
+	 * such as biomes, enchantments and damage types, by id.
+	 *
+	 * <p>The lookups are created once per registry manager, so every builder made for the same world or server shares
+	 * one set of id tables. They're dropped along with the manager. Registries the manager doesn't have (the client only
+	 * receives some of them) are skipped.
+	 */
+	public static Jankson.Builder builder(DynamicRegistryManager registries) {
+		Jankson.Builder builder = builder();
+		for(Consumer<Jankson.Builder> registration : dynamicRegistrations(registries)) {
+			registration.accept(builder);
+		}
+		return builder;
+	}
+	
+	private static List<Consumer<Jankson.Builder>> dynamicRegistrations(DynamicRegistryManager registries) {
+		synchronized(DYNAMIC_REGISTRATIONS) {
+			return DYNAMIC_REGISTRATIONS.computeIfAbsent(registries, JanksonFactory::createDynamicRegistrations);
+		}
+	}
+	
+	private static List<Consumer<Jankson.Builder>> createDynamicRegistrations(DynamicRegistryManager registries) {
+		List<Consumer<Jankson.Builder>> result = new ArrayList<>();
 		
-		builder
-			.registerDeserializer(String.class, Identifier.class, (s, m) -> Identifier.of(s))
-			.registerSerializer(Identifier.class, (i,m)->new JsonPrimitive(i.toString()))
-			;
+		registerDynamic(result, registries, ArmorTrimMaterial.class, RegistryKeys.TRIM_MATERIAL);
+		registerDynamic(result, registries, ArmorTrimPattern.class,  RegistryKeys.TRIM_PATTERN);
+		registerDynamic(result, registries, BannerPattern.class,     RegistryKeys.BANNER_PATTERN);
+		registerDynamic(result, registries, Biome.class,             RegistryKeys.BIOME);
+		registerDynamic(result, registries, ConfiguredFeature.class, RegistryKeys.CONFIGURED_FEATURE);
+		registerDynamic(result, registries, DamageType.class,        RegistryKeys.DAMAGE_TYPE);
+		registerDynamic(result, registries, DimensionType.class,     RegistryKeys.DIMENSION_TYPE);
+		registerDynamic(result, registries, Enchantment.class,       RegistryKeys.ENCHANTMENT);
+		registerDynamic(result, registries, Instrument.class,        RegistryKeys.INSTRUMENT);
+		registerDynamic(result, registries, JukeboxSong.class,       RegistryKeys.JUKEBOX_SONG);
+		registerDynamic(result, registries, MessageType.class,       RegistryKeys.MESSAGE_TYPE);
+		registerDynamic(result, registries, PaintingVariant.class,   RegistryKeys.PAINTING_VARIANT);
+		registerDynamic(result, registries, PlacedFeature.class,     RegistryKeys.PLACED_FEATURE);
+		registerDynamic(result, registries, Structure.class,         RegistryKeys.STRUCTURE);
+		registerDynamic(result, registries, StructureSet.class,      RegistryKeys.STRUCTURE_SET);
+		registerDynamic(result, registries, WolfVariant.class,       RegistryKeys.WOLF_VARIANT);
 		
-		//All the things you could potentially specify with just a registry ID
-		//Note: specifically excludes dynamic registries since we can't have static access to them.
-		register(builder, Activity.class,                    Registries.ACTIVITY);
-		register(builder, ArgumentSerializer.class,          Registries.COMMAND_ARGUMENT_TYPE);
-		register(builder, Block.class,                       Registries.BLOCK);
-		register(builder, BlockEntityType.class,             Registries.BLOCK_ENTITY_TYPE);
-		register(builder, BlockPredicateType.class,          Registries.BLOCK_PREDICATE_TYPE);
-		register(builder, BlockStateProviderType.class,      Registries.BLOCK_STATE_PROVIDER_TYPE);
-		register(builder, Carver.class,                      Registries.CARVER);
-		register(builder, CatVariant.class,                  Registries.CAT_VARIANT);
-		register(builder, ChunkStatus.class,                 Registries.CHUNK_STATUS);
-		register(builder, ConsumeEffect.Type.class,          Registries.CONSUME_EFFECT_TYPE);
-		register(builder, Criterion.class,                   Registries.CRITERION);
-		register(builder, EntityAttribute.class,             Registries.ATTRIBUTE);
-		register(builder, EntityType.class,                  Registries.ENTITY_TYPE);
-		register(builder, Feature.class,                     Registries.FEATURE);
-		register(builder, FeatureSizeType.class,             Registries.FEATURE_SIZE_TYPE);
-		register(builder, FloatProviderType.class,           Registries.FLOAT_PROVIDER_TYPE);
-		register(builder, Fluid.class,                       Registries.FLUID);
-		register(builder, FoliagePlacerType.class,           Registries.FOLIAGE_PLACER_TYPE);
-		register(builder, FrogVariant.class,                 Registries.FROG_VARIANT);
-		register(builder, GameEvent.class,                   Registries.GAME_EVENT);
-		register(builder, HeightProviderType.class,          Registries.HEIGHT_PROVIDER_TYPE);
-		register(builder, IntProviderType.class,             Registries.INT_PROVIDER_TYPE);
-		register(builder, Item.class,                        Registries.ITEM);
-		register(builder, ItemGroup.class,                   Registries.ITEM_GROUP);
-		register(builder, ItemSubPredicate.Type.class,       Registries.ITEM_SUB_PREDICATE_TYPE);
-		register(builder, LootConditionType.class,           Registries.LOOT_CONDITION_TYPE);
-		register(builder, LootFunctionType.class,            Registries.LOOT_FUNCTION_TYPE);
-		register(builder, LootNbtProviderType.class,         Registries.LOOT_NBT_PROVIDER_TYPE);
-		register(builder, LootNumberProviderType.class,      Registries.LOOT_NUMBER_PROVIDER_TYPE);
-		register(builder, LootPoolEntryType.class,           Registries.LOOT_POOL_ENTRY_TYPE);
-		register(builder, LootScoreProviderType.class,       Registries.LOOT_SCORE_PROVIDER_TYPE);
-		register(builder, MapDecorationType.class,           Registries.MAP_DECORATION_TYPE);
-		register(builder, MemoryModuleType.class,            Registries.MEMORY_MODULE_TYPE);
-		register(builder, NumberFormatType.class,            Registries.NUMBER_FORMAT_TYPE);
-		register(builder, ParticleType.class,                Registries.PARTICLE_TYPE);
-		register(builder, PlacementModifierType.class,       Registries.PLACEMENT_MODIFIER_TYPE);
-		register(builder, PointOfInterestType.class,         Registries.POINT_OF_INTEREST_TYPE);
-		register(builder, PositionSourceType.class,          Registries.POSITION_SOURCE_TYPE);
-		register(builder, PosRuleTestType.class,             Registries.POS_RULE_TEST);
-		register(builder, Potion.class,                      Registries.POTION);
-		register(builder, RecipeBookCategory.class,          Registries.RECIPE_BOOK_CATEGORY);
-		register(builder, RecipeDisplay.Serializer.class,    Registries.RECIPE_DISPLAY);
-		register(builder, RecipeSerializer.class,            Registries.RECIPE_SERIALIZER);
-		register(builder, RecipeType.class,                  Registries.RECIPE_TYPE);
-		register(builder, RootPlacerType.class,              Registries.ROOT_PLACER_TYPE);
-		register(builder, RuleBlockEntityModifierType.class, Registries.RULE_BLOCK_ENTITY_MODIFIER);
-		register(builder, RuleTestType.class,                Registries.RULE_TEST);
-		register(builder, Schedule.class,                    Registries.SCHEDULE);
-		register(builder, ScreenHandlerType.class,           Registries.SCREEN_HANDLER);
-		register(builder, SensorType.class,                  Registries.SENSOR_TYPE);
-		register(builder, SlotDisplay.Serializer.class,      Registries.SLOT_DISPLAY);
-		register(builder, SoundEvent.class,                  Registries.SOUND_EVENT);
-		register(builder, StatType.class,                    Registries.STAT_TYPE);
-		register(builder, StatusEffect.class,                Registries.STATUS_EFFECT);
-		register(builder, StructurePlacementType.class,      Registries.STRUCTURE_PLACEMENT);
-		register(builder, StructurePieceType.class,          Registries.STRUCTURE_PIECE);
-		register(builder, StructurePoolElementType.class,    Registries.STRUCTURE_POOL_ELEMENT);
-		register(builder, StructureProcessorType.class,      Registries.STRUCTURE_PROCESSOR);
-		register(builder, StructureType.class,               Registries.STRUCTURE_TYPE);
-		register(builder, TreeDecoratorType.class,           Registries.TREE_DECORATOR_TYPE);
-		register(builder, TrunkPlacerType.class,             Registries.TRUNK_PLACER_TYPE);
-		register(builder, VillagerProfession.class,          Registries.VILLAGER_PROFESSION);
-		register(builder, VillagerType.class,                Registries.VILLAGER_TYPE);
-		register(builder, Registry.class,                    Registries.REGISTRIES);
+		return List.copyOf(result);
+	}
+	
+	/** Per-manager registrations for {@link #builder(DynamicRegistryManager)}. Weak, so a closed world's tables can go. */
+	private static final Map<DynamicRegistryManager, List<Consumer<Jankson.Builder>>> DYNAMIC_REGISTRATIONS = new WeakHashMap<>();
+	
+	/**
+	 * Every registration {@link #builder()} makes, built once on first use and replayed onto each new builder. The
+	 * serializers are created here, once, and shared by every Jankson; registries are only resolved when a value of
+	 * their type is first (de)serialized.
+	 */
+	private static final class Prototype {
+		private static final List<Consumer<Jankson.Builder>> REGISTRATIONS = create();
 		
-		return builder;
+		private static List<Consumer<Jankson.Builder>> create() {
+			List<Consumer<Jankson.Builder>> result = new ArrayList<>();
+			
+			result.add(builder -> builder
+				.registerDeserializer(String.class, BlockState.class, BlockAndItemSerializers::getBlockStatePrimitive)
+				.registerDeserializer(JsonObject.class, BlockState.class, BlockAndItemSerializers::getBlockState)
+				//Jankson picks deserializers by exact class, and deduplicated trees share their leaves as frozen objects
+				.registerDeserializer(FrozenJsonObject.class, BlockState.class, BlockAndItemSerializers::getBlockState)
+				.registerSerializer(BlockState.class, BlockAndItemSerializers::saveBlockState));
+			
+			result.add(builder -> builder
+				.registerDeserializer(String.class, Identifier.class, (s, m) -> Identifier.of(s))
+				.registerSerializer(Identifier.class, (i,m)->new JsonPrimitive(i.toString()))
+				);
+			
+			//All the things you could potentially specify with just a registry ID
+			//Note: specifically excludes dynamic registries since we can't have static access to them; see builder(DynamicRegistryManager).
+			register(result, Activity.class,                    () -> Registries.ACTIVITY);
+			register(result, ArgumentSerializer.class,          () -> Registries.COMMAND_ARGUMENT_TYPE);
+			register(result, Block.class,                       () -> Registries.BLOCK);
+			register(result, BlockEntityType.class,             () -> Registries.BLOCK_ENTITY_TYPE);
+			register(result, BlockPredicateType.class,          () -> Registries.BLOCK_PREDICATE_TYPE);
+			register(result, BlockStateProviderType.class,      () -> Registries.BLOCK_STATE_PROVIDER_TYPE);
+			register(result, Carver.class,                      () -> Registries.CARVER);
+			register(result, CatVariant.class,                  () -> Registries.CAT_VARIANT);
+			register(result, ChunkStatus.class,                 () -> Registries.CHUNK_STATUS);
+			register(result, ConsumeEffect.Type.class,          () -> Registries.CONSUME_EFFECT_TYPE);
+			register(result, Criterion.class,                   () -> Registries.CRITERION);
+			register(result, EntityAttribute.class,             () -> Registries.ATTRIBUTE);
+			register(result, EntityType.class,                  () -> Registries.ENTITY_TYPE);
+			register(result, Feature.class,                     () -> Registries.FEATURE);
+			register(result, FeatureSizeType.class,             () -> Registries.FEATURE_SIZE_TYPE);
+			register(result, FloatProviderType.class,           () -> Registries.FLOAT_PROVIDER_TYPE);
+			register(result, Fluid.class,                       () -> Registries.FLUID);
+			register(result, FoliagePlacerType.class,           () -> Registries.FOLIAGE_PLACER_TYPE);
+			register(result, FrogVariant.class,                 () -> Registries.FROG_VARIANT);
+			register(result, GameEvent.class,                   () -> Registries.GAME_EVENT);
+			register(result, HeightProviderType.class,          () -> Registries.HEIGHT_PROVIDER_TYPE);
+			register(result, IntProviderType.class,             () -> Registries.INT_PROVIDER_TYPE);
+			register(result, Item.class,                        () -> Registries.ITEM);
+			register(result, ItemGroup.class,                   () -> Registries.ITEM_GROUP);
+			register(result, ItemSubPredicate.Type.class,       () -> Registries.ITEM_SUB_PREDICATE_TYPE);
+			register(result, LootConditionType.class,           () -> Registries.LOOT_CONDITION_TYPE);
+			register(result, LootFunctionType.class,            () -> Registries.LOOT_FUNCTION_TYPE);
+			register(result, LootNbtProviderType.class,         () -> Registries.LOOT_NBT_PROVIDER_TYPE);
+			register(result, LootNumberProviderType.class,      () -> Registries.LOOT_NUMBER_PROVIDER_TYPE);
+			register(result, LootPoolEntryType.class,           () -> Registries.LOOT_POOL_ENTRY_TYPE);
+			register(result, LootScoreProviderType.class,       () -> Registries.LOOT_SCORE_PROVIDER_TYPE);
+			register(result, MapDecorationType.class,           () -> Registries.MAP_DECORATION_TYPE);
+			register(result, MemoryModuleType.class,            () -> Registries.MEMORY_MODULE_TYPE);
+			register(result, NumberFormatType.class,            () -> Registries.NUMBER_FORMAT_TYPE);
+			register(result, ParticleType.class,                () -> Registries.PARTICLE_TYPE);
+			register(result, PlacementModifierType.class,       () -> Registries.PLACEMENT_MODIFIER_TYPE);
+			register(result, PointOfInterestType.class,         () -> Registries.POINT_OF_INTEREST_TYPE);
+			register(result, PositionSourceType.class,          () -> Registries.POSITION_SOURCE_TYPE);
+			register(result, PosRuleTestType.class,             () -> Registries.POS_RULE_TEST);
+			register(result, Potion.class,                      () -> Registries.POTION);
+			register(result, RecipeBookCategory.class,          () -> Registries.RECIPE_BOOK_CATEGORY);
+			register(result, RecipeDisplay.Serializer.class,    () -> Registries.RECIPE_DISPLAY);
+			register(result, RecipeSerializer.class,            () -> Registries.RECIPE_SERIALIZER);
+			register(result, RecipeType.class,                  () -> Registries.RECIPE_TYPE);
+			register(result, RootPlacerType.class,              () -> Registries.ROOT_PLACER_TYPE);
+			register(result, RuleBlockEntityModifierType.class, () -> Registries.RULE_BLOCK_ENTITY_MODIFIER);
+			register(result, RuleTestType.class,                () -> Registries.RULE_TEST);
+			register(result, Schedule.class,                    () -> Registries.SCHEDULE);
+			register(result, ScreenHandlerType.class,           () -> Registries.SCREEN_HANDLER);
+			register(result, SensorType.class,                  () -> Registries.SENSOR_TYPE);
+			register(result, SlotDisplay.Serializer.class,      () -> Registries.SLOT_DISPLAY);
+			register(result, SoundEvent.class,                  () -> Registries.SOUND_EVENT);
+			register(result, StatType.class,                    () -> Registries.STAT_TYPE);
+			register(result, StatusEffect.class,                () -> Registries.STATUS_EFFECT);
+			register(result, StructurePlacementType.class,      () -> Registries.STRUCTURE_PLACEMENT);
+			register(result, StructurePieceType.class,          () -> Registries.STRUCTURE_PIECE);
+			register(result, StructurePoolElementType.class,    () -> Registries.STRUCTURE_POOL_ELEMENT);
+			register(result, StructureProcessorType.class,      () -> Registries.STRUCTURE_PROCESSOR);
+			register(result, StructureType.class,               () -> Registries.STRUCTURE_TYPE);
+			register(result, TreeDecoratorType.class,           () -> Registries.TREE_DECORATOR_TYPE);
+			register(result, TrunkPlacerType.class,             () -> Registries.TRUNK_PLACER_TYPE);
+			register(result, VillagerProfession.class,          () -> Registries.VILLAGER_PROFESSION);
+			register(result, VillagerType.class,                () -> Registries.VILLAGER_TYPE);
+			register(result, Registry.class,                    () -> Registries.REGISTRIES);
+			
+			return List.copyOf(result);
+		}
 	}
 	
-	private static <T> void register(Jankson.Builder builder, Class<T> clazz, Registry<? extends T> registry) {
-		builder.registerDeserializer(String.class, clazz, (s,m)->lookupDeserialize(s, registry));
-		builder.registerSerializer(clazz, (o,m)->lookupSerialize(o, registry));
+	private static <T> void register(List<Consumer<Jankson.Builder>> registrations, Class<T> clazz, Supplier<? extends Registry<? extends T>> registry) {
+		RegistryLookup<T> lookup = new RegistryLookup<>(registry);
+		DeserializerFunction<String, T> deserializer = (s,m)->lookup.deserialize(s);
+		BiFunction<T, Marshaller, JsonElement> serializer = (o,m)->lookup.serialize(o);
+		registrations.add(builder -> builder
+			.registerDeserializer(String.class, clazz, deserializer)
+			.registerSerializer(clazz, serializer));
 	}
 	
-	private static <T> T lookupDeserialize(String s, Registry<T> registry) {
-		return registry.get(Identifier.of(s));
+	
+	private static <T> void registerDynamic(List<Consumer<Jankson.Builder>> registrations, DynamicRegistryManager registries, Class<T> clazz, RegistryKey<? extends Registry<? extends T>> key) {
+		//Resolved now rather than in the supplier, so the lookups don't keep the manager itself reachable
+		Optional<? extends Registry<? extends T>> registry = registries.getOptional(key);
+		if (registry.isPresent()) {
+			Registry<? extends T> resolved = registry.get();
+			register(registrations, clazz, () -> resolved);
+		}
 	}
 	
-	private static <T, U extends T> JsonElement lookupSerialize(T t, Registry<U> registry) {
-		@SuppressWarnings("unchecked") //Widening cast happening because of generic type parameters in the registry class
-		Identifier id = registry.getId((U)t);
-		if (id==null) return JsonNull.INSTANCE;
-		return new JsonPrimitive(id.toString());
+	/**
+	 * Registers a codec as both the serializer and the deserializer for a type, so that values of it are converted
+	 * through {@link JanksonOps} instead of by reflecting over their fields.
+	 *
+	 * <p>A value the codec can't decode fails with a {@link blue.endless.jankson.api.DeserializationException} carrying
+	 * the codec's error, and one it can't encode fails with an IllegalArgumentException carrying it.
+	 */
+	public static <T> Jankson.Builder registerCodec(Jankson.Builder builder, Class<T> clazz, Codec<T> codec) {
+		return registerCodec(builder, clazz, codec, JanksonOps.INSTANCE);
 	}
 	
+	public static <T> Jankson.Builder registerCodec(Jankson.Builder builder, Class<T> clazz, Codec<T> codec, JanksonOps ops) {
+		new CodecAdapter<>(codec, ops).register(builder, clazz);
+		return builder;
+	}
 	
 	public static Jankson createJankson() {
 		return builder().build();
 	}
 	
+	public static Jankson createJankson(DynamicRegistryManager registries) {
+		return builder(registries).build();
+	}
+	
 }
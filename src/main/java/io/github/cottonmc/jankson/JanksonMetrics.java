@@ -0,0 +1,173 @@
+package io.github.cottonmc.jankson;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Optional counters and timers for the work this library does, plus JFR events for file parsing and decoding.
+ *
+ * <p>Counters are off unless the JVM is started with {@code -Djankson.metrics=true}. {@link #ENABLED} is a constant,
+ * so when it's false the JIT removes every instrumentation point entirely. The JFR events follow JFR's own settings
+ * and are free unless a recording has them enabled.
+ *
+ * <p>Read the counters with {@link #snapshot()}, or through the individual {@link Timer}s and {@link Counter}s.
+ */
+public final class JanksonMetrics {
+	public static final boolean ENABLED = Boolean.getBoolean("jankson.metrics");
+
+	/**
+	 * Calls to {@link JanksonOps#convertTo}, including the nested calls DFU makes for each element of a generic
+	 * conversion. Conversions to Gson or NBT, and of frozen trees between JanksonOps, handle the whole tree in one call,
+	 * so count once however big it is. The time only covers the outermost call of each conversion.
+	 */
+	public static final Timer CONVERSIONS = new Timer("ops.convert");
+	/** Calls to the {@code mergeToList} and {@code mergeToMap} methods of {@link JanksonOps}. */
+	public static final Counter MERGES = new Counter("ops.merge");
+	/** Registry adapter lookups answered from {@link RegistryLookup}'s caches. */
+	public static final Counter REGISTRY_HITS = new Counter("registry.hit");
+	/** Registry adapter lookups that had to go to the registry. */
+	public static final Counter REGISTRY_MISSES = new Counter("registry.miss");
+	/** Calls to {@link BlockAndItemSerializers#getBlockState} and {@link BlockAndItemSerializers#getBlockStatePrimitive}. */
+	public static final Timer GET_BLOCK_STATE = new Timer("blockstate.get");
+	/** Calls to {@link BlockAndItemSerializers#saveBlockState}. */
+	public static final Timer SAVE_BLOCK_STATE = new Timer("blockstate.save");
+	/** Files parsed from text by the loaders in this library. */
+	public static final Timer FILE_PARSES = new Timer("file.parse");
+	/** Files decoded through a codec by the loaders in this library. */
+	public static final Timer FILE_DECODES = new Timer("file.decode");
+
+	private static final List<Metric> ALL = List.of(CONVERSIONS, MERGES, REGISTRY_HITS, REGISTRY_MISSES, GET_BLOCK_STATE, SAVE_BLOCK_STATE, FILE_PARSES, FILE_DECODES);
+
+	private JanksonMetrics() {}
+
+	/**
+	 * @return the current value of every counter, and the total nanoseconds of every timer, by name
+	 */
+	public static Map<String, Long> snapshot() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		for(Metric metric : ALL) metric.addTo(result);
+		return result;
+	}
+
+	public static void reset() {
+		for(Metric metric : ALL) metric.reset();
+	}
+
+	private interface Metric {
+		void addTo(Map<String, Long> snapshot);
+		void reset();
+	}
+
+	public static final class Counter implements Metric {
+		private final String name;
+		private final LongAdder count = new LongAdder();
+
+		private Counter(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		void increment() {
+			count.increment();
+		}
+
+		@Override
+		public void addTo(Map<String, Long> snapshot) {
+			snapshot.put(name+".count", getCount());
+		}
+
+		@Override
+		public void reset() {
+			count.reset();
+		}
+	}
+
+	public static final class Timer implements Metric {
+		private final String name;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+
+		private Timer(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		public long getTotalNanos() {
+			return nanos.sum();
+		}
+
+		/** Counts one call, without timing it. */
+		void increment() {
+			count.increment();
+		}
+
+		/** Counts one call that started at {@code startNanos}. */
+		void record(long startNanos) {
+			count.increment();
+			nanos.add(System.nanoTime() - startNanos);
+		}
+
+		@Override
+		public void addTo(Map<String, Long> snapshot) {
+			snapshot.put(name+".count", getCount());
+			snapshot.put(name+".nanos", getTotalNanos());
+		}
+
+		@Override
+		public void reset() {
+			count.reset();
+			nanos.reset();
+		}
+	}
+
+	@Name("io.github.cottonmc.jankson.Parse")
+	@Label("Jankson Parse")
+	@Category("Jankson")
+	@Description("Parsing a JSON5 file into a Jankson tree")
+	public static final class ParseEvent extends Event {
+		@Label("File")
+		public String file;
+
+		@Label("Length")
+		@Description("Size of the source text")
+		public long length;
+
+		@Label("From Snapshot")
+		@Description("Whether the tree was read from a binary snapshot instead of parsed from text")
+		public boolean fromSnapshot;
+	}
+
+	@Name("io.github.cottonmc.jankson.Decode")
+	@Label("Jankson Decode")
+	@Category("Jankson")
+	@Description("Decoding a parsed Jankson tree through a codec")
+	public static final class DecodeEvent extends Event {
+		@Label("File")
+		public String file;
+
+		@Label("Succeeded")
+		public boolean succeeded;
+	}
+}
@@ -8,12 +8,23 @@ import blue.endless.jankson.JsonPrimitive;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.Lifecycle;
+import com.mojang.serialization.ListBuilder;
 import com.mojang.serialization.MapLike;
+import com.mojang.serialization.RecordBuilder;
+import net.minecraft.nbt.NbtOps;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 /**
@@ -24,6 +35,10 @@ public class JanksonOps implements DynamicOps<JsonElement> {
     public static final JanksonOps INSTANCE = new JanksonOps(false);
     public static final JanksonOps COMPRESSED = new JanksonOps(true);
 
+    private static final DataResult<Boolean> TRUE_RESULT = DataResult.success(true);
+    private static final DataResult<Boolean> FALSE_RESULT = DataResult.success(false);
+    private static final ThreadLocal<int[]> CONVERSION_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
     private final boolean compressed;
 
     /**
@@ -31,7 +46,9 @@ public class JanksonOps implements DynamicOps<JsonElement> {
      *
      * @param compressed true if strings should be treated as valid numbers,
      *                   other primitives should be treated as valid strings,
-     *                   and maps {@linkplain DynamicOps#compressMaps() should be compressed}.
+     *                   and maps {@linkplain DynamicOps#compressMaps() should be compressed}:
+     *                   records become lists by key index, and other maps become {@linkplain FlatJsonMap flat arrays}
+     *                   of alternating keys and values, wrapped in an object that marks them as maps.
      */
     protected JanksonOps(boolean compressed) {
         this.compressed = compressed;
@@ -44,6 +61,37 @@ public class JanksonOps implements DynamicOps<JsonElement> {
 
     @Override
     public <U> U convertTo(DynamicOps<U> outOps, JsonElement input) {
+        if (!JanksonMetrics.ENABLED) {
+            return convert(outOps, input);
+        }
+
+        // convertMap and convertList come back through here for every child, so only the outermost call is timed
+        int[] depth = CONVERSION_DEPTH.get();
+        long start = (depth[0] == 0) ? System.nanoTime() : 0L;
+        depth[0]++;
+        try {
+            return convert(outOps, input);
+        } finally {
+            if (--depth[0] == 0) {
+                JanksonMetrics.CONVERSIONS.record(start);
+            } else {
+                JanksonMetrics.CONVERSIONS.increment();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked") // U is fixed by which ops outOps is
+    private <U> U convert(DynamicOps<U> outOps, JsonElement input) {
+        if (outOps instanceof JanksonOps && ((JanksonOps) outOps).compressed == compressed && FrozenJson.isFrozen(input)) {
+            // Nothing can change it, so there's no need for a copy
+            return (U) input;
+        }
+        if (outOps == JsonOps.INSTANCE || outOps == JsonOps.COMPRESSED) {
+            return (U) JanksonConverters.toGson(input, compressed);
+        } else if (outOps == NbtOps.INSTANCE) {
+            return (U) JanksonConverters.toNbt(input, compressed);
+        }
+
         if (input instanceof JsonObject) {
             return convertMap(outOps, input);
         } else if (input instanceof JsonArray) {
@@ -79,14 +127,16 @@ public class JanksonOps implements DynamicOps<JsonElement> {
     public DataResult<Number> getNumberValue(JsonElement input) {
         if (input instanceof JsonPrimitive) {
             Object value = ((JsonPrimitive) input).getValue();
-            if (value instanceof Number) {
+            if (value instanceof Long && JsonPrimitives.isCached((Long) value)) {
+                return JsonPrimitives.numberResult((Long) value);
+            } else if (value instanceof Number) {
                 return DataResult.success((Number) value);
             } else if (value instanceof Boolean) {
-                return DataResult.success((Boolean) value ? 1 : 0);
+                return JsonPrimitives.numberResult((Boolean) value ? 1 : 0);
             } else if (compressed && value instanceof String) {
                 // See JsonOps.getNumberValue
                 try {
-                    return DataResult.success(Integer.parseInt((String) value));
+                    return JsonPrimitives.numberResult(Integer.parseInt((String) value));
                 } catch (final NumberFormatException e) {
                     return DataResult.error(() -> "Not a number: " + e + " " + input);
                 }
@@ -96,9 +146,62 @@ public class JanksonOps implements DynamicOps<JsonElement> {
         return DataResult.error(() -> "Not a number: " + input);
     }
 
+    @Override
+    public Number getNumberValue(JsonElement input, Number defaultValue) {
+        if (input instanceof JsonPrimitive && ((JsonPrimitive) input).getValue() instanceof Number) {
+            return (Number) ((JsonPrimitive) input).getValue();
+        }
+
+        return getNumberValue(input).result().orElse(defaultValue);
+    }
+
+    @Override
+    public DataResult<Boolean> getBooleanValue(JsonElement input) {
+        if (input instanceof JsonPrimitive) {
+            Object value = ((JsonPrimitive) input).getValue();
+            if (value instanceof Boolean) {
+                return (Boolean) value ? TRUE_RESULT : FALSE_RESULT;
+            } else if (value instanceof Number) {
+                return ((Number) value).byteValue() != 0 ? TRUE_RESULT : FALSE_RESULT;
+            }
+        }
+
+        return getNumberValue(input).map(number -> number.byteValue() != 0);
+    }
+
     @Override
     public JsonElement createNumeric(Number i) {
-        return new JsonPrimitive(i);
+        return JsonPrimitives.of(i);
+    }
+
+    @Override
+    public JsonElement createByte(byte value) {
+        return JsonPrimitives.of((long) value);
+    }
+
+    @Override
+    public JsonElement createShort(short value) {
+        return JsonPrimitives.of((long) value);
+    }
+
+    @Override
+    public JsonElement createInt(int value) {
+        return JsonPrimitives.of((long) value);
+    }
+
+    @Override
+    public JsonElement createLong(long value) {
+        return JsonPrimitives.of(value);
+    }
+
+    @Override
+    public JsonElement createFloat(float value) {
+        return JsonPrimitives.of((double) value);
+    }
+
+    @Override
+    public JsonElement createDouble(double value) {
+        return JsonPrimitives.of(value);
     }
 
     @Override
@@ -115,7 +218,7 @@ public class JanksonOps implements DynamicOps<JsonElement> {
 
     @Override
     public JsonElement createString(String value) {
-        return new JsonPrimitive(value);
+        return JsonPrimitives.of(value);
     }
 
     @Override
@@ -125,6 +228,10 @@ public class JanksonOps implements DynamicOps<JsonElement> {
 
     @Override
     public DataResult<JsonElement> mergeToList(JsonElement list, JsonElement value) {
+        if (JanksonMetrics.ENABLED) {
+            JanksonMetrics.MERGES.increment();
+        }
+
         if (list instanceof JsonNull) {
             JsonArray output = new JsonArray();
             output.add(value);
@@ -139,21 +246,48 @@ public class JanksonOps implements DynamicOps<JsonElement> {
         return DataResult.error(() -> "Not an array: " + list);
     }
 
+    @Override
+    public DataResult<JsonElement> mergeToList(JsonElement list, List<JsonElement> values) {
+        if (JanksonMetrics.ENABLED) {
+            JanksonMetrics.MERGES.increment();
+        }
+
+        if (!(list instanceof JsonArray) && !(list instanceof JsonNull)) {
+            return DataResult.error(() -> "Not an array: " + list);
+        }
+
+        JsonArray output = new JsonArray();
+        if (list instanceof JsonArray) {
+            output.addAll((JsonArray) list);
+        }
+        output.addAll(values);
+        return DataResult.success(output);
+    }
+
     @Override
     public DataResult<JsonElement> mergeToMap(JsonElement map, JsonElement key, JsonElement value) {
+        if (JanksonMetrics.ENABLED) {
+            JanksonMetrics.MERGES.increment();
+        }
+
         if (!(key instanceof JsonPrimitive) || (!(((JsonPrimitive) key).getValue() instanceof String) && !compressed)) {
             return DataResult.error(() -> "Key is not a string: " + key);
         }
 
+        JsonArray base = compressed ? FlatJsonMap.entriesOf(map) : null;
+        if (compressed && (map instanceof JsonNull || base != null)) {
+            JsonArray entry = new JsonArray();
+            entry.add(key);
+            entry.add(value);
+            return DataResult.success(FlatJsonMap.merge(base, entry));
+        }
+
         if (map instanceof JsonNull) {
             JsonObject output = new JsonObject();
             output.put(((JsonPrimitive) key).asString(), value);
             return DataResult.success(output);
         } else if (map instanceof JsonObject) {
-            JsonObject output = new JsonObject();
-            output.put(((JsonPrimitive) key).asString(), value);
-            output.putAll((JsonObject) map);
-            return DataResult.success(output);
+            return DataResult.success(copyOf((JsonObject) map, null, Collections.singletonMap(((JsonPrimitive) key).asString(), value)));
         } else {
             return DataResult.error(() -> "Not a JSON object: " + map);
         }
@@ -161,28 +295,56 @@ public class JanksonOps implements DynamicOps<JsonElement> {
 
     @Override
     public DataResult<JsonElement> mergeToMap(JsonElement map, MapLike<JsonElement> values) {
-        if (!(map instanceof JsonObject) && !(map instanceof JsonNull)) {
-            return DataResult.error(() -> "Not a JSON object: " + map);
+        if (JanksonMetrics.ENABLED) {
+            JanksonMetrics.MERGES.increment();
         }
 
-        JsonObject result = new JsonObject();
-        if (map instanceof JsonObject) {
-            result.putAll((JsonObject) map);
+        JsonArray base = compressed ? FlatJsonMap.entriesOf(map) : null;
+        if (compressed && (base != null || map instanceof JsonNull)) {
+            JsonArray additions = new JsonArray();
+            List<JsonElement> invalidKeys = new ArrayList<>();
+            values.entries().forEach(entry -> {
+                if (!FlatJsonMap.isValidKey(entry.getFirst())) {
+                    invalidKeys.add(entry.getFirst());
+                    return;
+                }
+                additions.add(entry.getFirst());
+                additions.add(entry.getSecond());
+            });
+
+            JsonObject result = FlatJsonMap.merge(base, additions);
+            if (!invalidKeys.isEmpty()) {
+                return DataResult.error(() -> "Some keys are not primitives: " + invalidKeys, result);
+            }
+            return DataResult.success(result);
+        }
+
+        if (!(map instanceof JsonObject) && !(map instanceof JsonNull)) {
+            return DataResult.error(() -> "Not a JSON object: " + map);
         }
 
+        Map<String, JsonElement> additions = new LinkedHashMap<>();
         List<JsonElement> invalidKeys = new ArrayList<>();
 
         values.entries().forEach(entry -> {
             JsonElement key = entry.getFirst();
 
-            if (!(key instanceof JsonPrimitive) || (!(((JsonPrimitive) key).getValue() instanceof String && !compressed))) {
+            if (!(key instanceof JsonPrimitive) || (!(((JsonPrimitive) key).getValue() instanceof String) && !compressed)) {
                 invalidKeys.add(key);
                 return;
             }
 
-            result.put(((JsonPrimitive) key).asString(), entry.getSecond());
+            additions.put(((JsonPrimitive) key).asString(), entry.getSecond());
         });
 
+        JsonObject result;
+        if (map instanceof JsonObject) {
+            result = copyOf((JsonObject) map, null, additions);
+        } else {
+            result = new JsonObject();
+            result.putAll(additions);
+        }
+
         if (!invalidKeys.isEmpty()) {
             return DataResult.error(() -> "Some keys are not strings: " + invalidKeys, result);
         }
@@ -192,58 +354,84 @@ public class JanksonOps implements DynamicOps<JsonElement> {
 
     @Override
     public DataResult<Stream<Pair<JsonElement, JsonElement>>> getMapValues(JsonElement input) {
-        if (input instanceof JsonObject) {
+        JsonArray entries = compressed ? FlatJsonMap.entriesOf(input) : null;
+        if (entries != null) {
+            return DataResult.success(FlatJsonMap.entryStream(entries));
+        } else if (input instanceof JsonObject) {
             return DataResult.success(((JsonObject) input).entrySet().stream()
-                    .map(entry -> new Pair<>(new JsonPrimitive(entry.getKey()), entry.getValue())));
+                    .map(entry -> Pair.of(JsonPrimitives.key(entry.getKey()), entry.getValue())));
         }
         return DataResult.error(() -> "Not a JSON object: " + input);
     }
 
+    @Override
+    public DataResult<Consumer<BiConsumer<JsonElement, JsonElement>>> getMapEntries(JsonElement input) {
+        JsonArray entries = compressed ? FlatJsonMap.entriesOf(input) : null;
+        if (entries != null) {
+            return DataResult.success(sink -> FlatJsonMap.forEachEntry(entries, sink));
+        } else if (!(input instanceof JsonObject)) {
+            return DataResult.error(() -> "Not a JSON object: " + input);
+        }
+
+        return DataResult.success(sink -> {
+            for (Map.Entry<String, JsonElement> entry : ((JsonObject) input).entrySet()) {
+                sink.accept(JsonPrimitives.key(entry.getKey()), entry.getValue());
+            }
+        });
+    }
+
     @Override
     public JsonElement createMap(Map<JsonElement, JsonElement> map) {
+        if (compressed) {
+            JsonArray entries = new JsonArray();
+            for (Map.Entry<JsonElement, JsonElement> entry : map.entrySet()) {
+                entries.add(entry.getKey());
+                entries.add(entry.getValue());
+            }
+            return finishMap(FlatJsonMap.merge(null, entries));
+        }
+
         JsonObject result = new JsonObject();
         for (Map.Entry<JsonElement, JsonElement> entry : map.entrySet()) {
             result.put(((JsonPrimitive) entry.getKey()).asString(), entry.getValue());
         }
-        return result;
+        return finishMap(result);
     }
 
     @Override
     public JsonElement createMap(Stream<Pair<JsonElement, JsonElement>> map) {
+        if (compressed) {
+            JsonArray entries = new JsonArray();
+            map.forEach(pair -> {
+                entries.add(pair.getFirst());
+                entries.add(pair.getSecond());
+            });
+            return finishMap(FlatJsonMap.merge(null, entries));
+        }
+
         JsonObject result = new JsonObject();
         map.forEach(pair -> result.put(((JsonPrimitive) pair.getFirst()).asString(), pair.getSecond()));
-        return result;
+        return finishMap(result);
+    }
+
+    /**
+     * Called with every map this ops creates from scratch, through {@code createMap} or {@link #mapBuilder()}, before
+     * it's returned. Subclasses can replace it with an equivalent map; by default it's returned as-is.
+     */
+    protected JsonElement finishMap(JsonElement map) {
+        return map;
     }
 
     @Override
     public DataResult<MapLike<JsonElement>> getMap(JsonElement input) {
-        if (!(input instanceof JsonObject)) {
+        JsonArray entries = compressed ? FlatJsonMap.entriesOf(input) : null;
+        if (entries != null) {
+            return DataResult.success(new FlatJsonMap(entries));
+        } else if (!(input instanceof JsonObject)) {
             return DataResult.error(() -> "Not a JSON object: " + input);
         }
 
-        JsonObject obj = (JsonObject) input;
-        return DataResult.success(new MapLike<JsonElement>() {
-            @Override
-            public JsonElement get(JsonElement key) {
-                return obj.get(((JsonPrimitive) key).asString());
-            }
-
-            @Override
-            public JsonElement get(String key) {
-                return obj.get(key);
-            }
-
-            @Override
-            public Stream<Pair<JsonElement, JsonElement>> entries() {
-                return obj.entrySet().stream()
-                        .map(entry -> new Pair<>(new JsonPrimitive(entry.getKey()), entry.getValue()));
-            }
-
-            @Override
-            public String toString() {
-                return "MapLike[" + obj + "]";
-            }
-        });
+        return DataResult.success(new JsonObjectMapLike((JsonObject) input));
     }
 
     @Override
@@ -274,6 +462,16 @@ public class JanksonOps implements DynamicOps<JsonElement> {
         });
     }
 
+    @Override
+    public ListBuilder<JsonElement> listBuilder() {
+        return new ArrayBuilder();
+    }
+
+    @Override
+    public RecordBuilder<JsonElement> mapBuilder() {
+        return compressed ? new FlatMapBuilder() : new ObjectBuilder();
+    }
+
     @Override
     public boolean compressMaps() {
         return compressed;
@@ -286,25 +484,192 @@ public class JanksonOps implements DynamicOps<JsonElement> {
 
     @Override
     public JsonElement emptyMap() {
-        return new JsonObject();
+        return compressed ? FlatJsonMap.wrap(new JsonArray()) : new JsonObject();
     }
 
     @Override
     public JsonElement remove(JsonElement input, String key) {
-        if (input instanceof JsonObject) {
-            JsonObject result = new JsonObject();
-            for (Map.Entry<String, JsonElement> entry : ((JsonObject) input).entrySet()) {
-                if (!entry.getKey().equals(key)) {
-                    result.put(entry.getKey(), entry.getValue());
-                }
-            }
-            return result;
+        JsonArray entries = compressed ? FlatJsonMap.entriesOf(input) : null;
+        if (entries != null) {
+            return finishMap(FlatJsonMap.without(entries, key));
+        } else if (input instanceof JsonObject) {
+            return copyOf((JsonObject) input, key, Collections.emptyMap());
         }
         return input;
     }
 
+    /**
+     * Copies {@code base} into a new object in one pass, leaving out {@code removed} (if not null) and then applying
+     * {@code additions}. Keys that are already present keep their position and comment and take the new value. The
+     * result never shares the object itself with its input, so either can be modified afterwards.
+     *
+     * <p>This is O(size) for every {@code remove} and merge. An overlay on a shared base can't be a JsonObject, since
+     * Jankson reads and writes its entries directly, so encoding many entries should go through {@link #mapBuilder()},
+     * which builds the object once.
+     */
+    private static JsonObject copyOf(JsonObject base, String removed, Map<String, JsonElement> additions) {
+        JsonObject result = new JsonObject();
+        Set<String> replaced = new HashSet<>();
+        for (Map.Entry<String, JsonElement> entry : base.entrySet()) {
+            String key = entry.getKey();
+            if (key.equals(removed)) continue;
+            JsonElement value = additions.get(key);
+            if (value != null) {
+                replaced.add(key);
+            } else {
+                value = entry.getValue();
+            }
+            result.put(key, value, base.getComment(key));
+        }
+        for (Map.Entry<String, JsonElement> entry : additions.entrySet()) {
+            if (!replaced.contains(entry.getKey())) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "Jankson";
     }
+
+    /**
+     * A list builder that appends to a single mutable array,
+     * so that encoding a list of N elements doesn't copy the array N times.
+     */
+    private final class ArrayBuilder implements ListBuilder<JsonElement> {
+        private DataResult<JsonArray> builder = DataResult.success(new JsonArray(), Lifecycle.stable());
+
+        @Override
+        public DynamicOps<JsonElement> ops() {
+            return JanksonOps.this;
+        }
+
+        @Override
+        public ListBuilder<JsonElement> add(JsonElement value) {
+            builder = builder.map(array -> {
+                array.add(value);
+                return array;
+            });
+            return this;
+        }
+
+        @Override
+        public ListBuilder<JsonElement> add(DataResult<JsonElement> value) {
+            builder = builder.apply2stable((array, element) -> {
+                array.add(element);
+                return array;
+            }, value);
+            return this;
+        }
+
+        @Override
+        public ListBuilder<JsonElement> withErrorsFrom(DataResult<?> result) {
+            builder = builder.flatMap(array -> result.map(ignored -> array));
+            return this;
+        }
+
+        @Override
+        public ListBuilder<JsonElement> mapError(UnaryOperator<String> onError) {
+            builder = builder.mapError(onError);
+            return this;
+        }
+
+        @Override
+        public DataResult<JsonElement> build(JsonElement prefix) {
+            DataResult<JsonElement> result = builder.flatMap(array -> {
+                if (prefix == null || prefix instanceof JsonNull) {
+                    return DataResult.success(array, Lifecycle.stable());
+                } else if (prefix instanceof JsonArray) {
+                    JsonArray output = new JsonArray();
+                    output.addAll((JsonArray) prefix);
+                    output.addAll(array);
+                    return DataResult.success(output, Lifecycle.stable());
+                }
+
+                return DataResult.error(() -> "Not an array: " + prefix, prefix);
+            });
+            builder = DataResult.success(new JsonArray(), Lifecycle.stable());
+            return result;
+        }
+    }
+
+    /**
+     * A record builder that puts entries into a single mutable object,
+     * so that encoding a record of N fields doesn't copy the object N times.
+     */
+    private final class ObjectBuilder extends RecordBuilder.AbstractStringBuilder<JsonElement, JsonObject> {
+        private ObjectBuilder() {
+            super(JanksonOps.this);
+        }
+
+        @Override
+        protected JsonObject initBuilder() {
+            return new JsonObject();
+        }
+
+        @Override
+        protected JsonObject append(String key, JsonElement value, JsonObject builder) {
+            builder.put(key, value);
+            return builder;
+        }
+
+        @Override
+        protected DataResult<JsonElement> build(JsonObject builder, JsonElement prefix) {
+            if (prefix == null || prefix instanceof JsonNull) {
+                return DataResult.success(finishMap(builder));
+            } else if (prefix instanceof JsonObject) {
+                return DataResult.success(finishMap(copyOf((JsonObject) prefix, null, builder)));
+            }
+
+            return DataResult.error(() -> "Not a JSON object: " + prefix, prefix);
+        }
+    }
+
+    /**
+     * The compressed counterpart of {@link ObjectBuilder}, which collects entries into a {@link FlatJsonMap}.
+     */
+    private final class FlatMapBuilder extends RecordBuilder.AbstractUniversalBuilder<JsonElement, JsonArray> {
+        private FlatMapBuilder() {
+            super(JanksonOps.this);
+        }
+
+        @Override
+        protected JsonArray initBuilder() {
+            return new JsonArray();
+        }
+
+        @Override
+        protected JsonArray append(JsonElement key, JsonElement value, JsonArray builder) {
+            builder.add(key);
+            builder.add(value);
+            return builder;
+        }
+
+        @Override
+        protected DataResult<JsonElement> build(JsonArray builder, JsonElement prefix) {
+            List<JsonElement> invalidKeys = new ArrayList<>();
+            FlatJsonMap.forEachEntry(builder, (key, value) -> {
+                if (!FlatJsonMap.isValidKey(key)) invalidKeys.add(key);
+            });
+            if (!invalidKeys.isEmpty()) {
+                return DataResult.error(() -> "Some keys are not primitives: " + invalidKeys, prefix);
+            }
+
+            JsonArray base = FlatJsonMap.entriesOf(prefix);
+            if (prefix == null || prefix instanceof JsonNull) {
+                return DataResult.success(finishMap(FlatJsonMap.merge(null, builder)));
+            } else if (base != null) {
+                return DataResult.success(finishMap(FlatJsonMap.merge(base, builder)));
+            } else if (prefix instanceof JsonObject) {
+                // Maps written before compression switched to flat maps
+                Map<String, JsonElement> additions = new LinkedHashMap<>();
+                FlatJsonMap.forEachEntry(builder, (key, value) -> additions.put(((JsonPrimitive) key).asString(), value));
+                return DataResult.success(finishMap(copyOf((JsonObject) prefix, null, additions)));
+            }
+
+            return DataResult.error(() -> "Not a map: " + prefix, prefix);
+        }
+    }
 }
@@ -0,0 +1,221 @@
+package io.github.cottonmc.jankson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import blue.endless.jankson.Jankson;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.Decoder;
+
+/**
+ * Keeps the decoded contents of one or more directories of Jankson files up to date, re-reading only what changed.
+ *
+ * <p>Watched directories are monitored with a {@link WatchService}. Every file's content hash is remembered, so a
+ * file is only re-parsed and re-decoded when its bytes actually differ - touching a file, or an editor rewriting it
+ * unchanged, costs one read and hash. {@link #poll()} processes whatever the watcher has seen since it was last called;
+ * {@link #reloadAll()} rescans everything, for an explicit {@code /reload} or when the watcher lost track.
+ *
+ * <p>Listeners are called on whichever thread calls {@code poll} or {@code reloadAll}. If one throws, the exception
+ * propagates out of that call, and the file's change is delivered again, to every listener, on the next one.
+ */
+public class JanksonReloadManager<A> implements Closeable {
+	/**
+	 * Receives the results of (re)loading files.
+	 */
+	public interface Listener<A> {
+		/**
+		 * Called when a file is first seen, or when its contents have changed.
+		 */
+		void onLoaded(Path file, DataResult<A> result);
+
+		/**
+		 * Called when a previously loaded file has been deleted.
+		 */
+		default void onRemoved(Path file) {}
+	}
+
+	private final Jankson jankson;
+	private final JanksonOps ops;
+	private final Decoder<A> decoder;
+	private final WatchService watchService;
+	private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+	private final List<Path> roots = new ArrayList<>();
+	private final Map<Path, byte[]> hashes = new HashMap<>();
+	private final Set<Path> dirty = new TreeSet<>();
+	private final List<Listener<A>> listeners = new CopyOnWriteArrayList<>();
+
+	public JanksonReloadManager(Decoder<A> decoder) throws IOException {
+		this(JanksonFactory.createJankson(), JanksonOps.INSTANCE, decoder);
+	}
+
+	public JanksonReloadManager(Jankson jankson, JanksonOps ops, Decoder<A> decoder) throws IOException {
+		this.jankson = jankson;
+		this.ops = ops;
+		this.decoder = decoder;
+		this.watchService = FileSystems.getDefault().newWatchService();
+	}
+
+	public void addListener(Listener<A> listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(Listener<A> listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Starts watching a directory and its subdirectories. Its files are loaded on the next {@link #poll()}.
+	 */
+	public synchronized void watch(Path directory) throws IOException {
+		roots.add(directory);
+		registerTree(directory);
+	}
+
+	/**
+	 * Reloads every file the watcher has reported as created, modified or deleted since the last poll, along with any
+	 * that couldn't be read or whose listeners threw last time.
+	 * @return the number of files whose decoded contents changed or were removed
+	 */
+	public synchronized int poll() throws IOException {
+		WatchKey key;
+		while((key = watchService.poll())!=null) {
+			Path directory = watchedDirectories.get(key);
+			for(WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind()==StandardWatchEventKinds.OVERFLOW || directory==null) {
+					//Lost track of what happened; the hashes will tell us what actually changed
+					rescan();
+					continue;
+				}
+
+				Path path = directory.resolve((Path) event.context());
+				if (event.kind()==StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+					registerTree(path);
+				} else if (JanksonBatchLoader.isJsonFile(path)) {
+					dirty.add(path);
+				}
+			}
+			if (!key.reset()) watchedDirectories.remove(key);
+		}
+
+		return processDirty();
+	}
+
+	/**
+	 * Rehashes every file in every watched directory, reloading the ones that changed and reporting the ones that
+	 * disappeared.
+	 * @return the number of files whose decoded contents changed or were removed
+	 */
+	public synchronized int reloadAll() throws IOException {
+		rescan();
+		return processDirty();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		watchService.close();
+	}
+
+	private void rescan() throws IOException {
+		dirty.addAll(hashes.keySet());
+		for(Path root : roots) {
+			if (Files.isDirectory(root)) registerTree(root);
+		}
+	}
+
+	/** Registers a directory tree with the watcher, and marks every file in it to be checked. */
+	private void registerTree(Path directory) throws IOException {
+		List<Path> paths;
+		try (Stream<Path> stream = Files.walk(directory)) {
+			paths = stream.collect(Collectors.toList());
+		}
+
+		for(Path path : paths) {
+			if (Files.isDirectory(path)) {
+				if (!watchedDirectories.containsValue(path)) {
+					try {
+						WatchKey key = path.register(watchService,
+								StandardWatchEventKinds.ENTRY_CREATE,
+								StandardWatchEventKinds.ENTRY_MODIFY,
+								StandardWatchEventKinds.ENTRY_DELETE);
+						watchedDirectories.put(key, path);
+					} catch (ClosedWatchServiceException e) {
+						throw new IOException("This reload manager has been closed", e);
+					}
+				}
+			} else if (JanksonBatchLoader.isJsonFile(path)) {
+				dirty.add(path);
+			}
+		}
+	}
+
+	/**
+	 * Checks every dirty file, and marks it clean once it's been dealt with. A file stays dirty if it couldn't be read,
+	 * or if a listener threw while being told about it, so the next poll tries it again.
+	 */
+	private int processDirty() {
+		int changed = 0;
+		Iterator<Path> iterator = dirty.iterator();
+		while(iterator.hasNext()) {
+			Path file = iterator.next();
+			if (!Files.isRegularFile(file)) {
+				if (hashes.containsKey(file)) {
+					for(Listener<A> listener : listeners) listener.onRemoved(file);
+					hashes.remove(file);
+					changed++;
+				}
+				iterator.remove();
+				continue;
+			}
+
+			byte[] bytes;
+			try {
+				bytes = Files.readAllBytes(file);
+			} catch (IOException e) {
+				//Usually caught mid-write or locked by the writer. The write may already have sent its last event, so
+				//leave it dirty rather than waiting for the watcher to report it again
+				continue;
+			}
+
+			byte[] hash = hash(bytes);
+			if (!Arrays.equals(hash, hashes.get(file))) {
+				DataResult<A> result = JanksonBatchLoader.decode(jankson, ops, file, new String(bytes, StandardCharsets.UTF_8), decoder);
+				for(Listener<A> listener : listeners) listener.onLoaded(file, result);
+				//Only remembered once every listener has seen it
+				hashes.put(file, hash);
+				changed++;
+			}
+			iterator.remove();
+		}
+		return changed;
+	}
+
+	private static byte[] hash(byte[] bytes) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(bytes);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is a required algorithm on every Java platform", e);
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package io.github.cottonmc.jankson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonElement;
+
+/**
+ * Saves Jankson files on a background thread, so that saving a config never blocks the thread that changed it.
+ *
+ * <p>{@link #save(Path, JsonElement)} {@linkplain FrozenJson freezes} a snapshot of the tree straight away, so the
+ * caller is free to keep modifying the original. The write happens after a short delay; if the same file is saved again
+ * before then, the newer snapshot replaces the pending one and both calls get the same future. Rapid edits therefore
+ * turn into a single write. Files are written to a temporary file next to the target, then moved over it atomically,
+ * so a crash mid-save never leaves a truncated config.
+ *
+ * <p>Files are written with comments, in the same format as {@code toJson(true, true)}. Call {@link #close()} when
+ * shutting down, to write anything still pending.
+ */
+public class JanksonSaveService implements Closeable {
+	public static final long DEFAULT_DELAY_MILLIS = 500;
+
+	private static final AtomicInteger THREAD_ID = new AtomicInteger();
+	private static final ThreadFactory WRITER_FACTORY = task -> {
+		Thread thread = new Thread(task, "Jankson Saver #"+THREAD_ID.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	};
+
+	private final long delayMillis;
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(WRITER_FACTORY);
+	private final Map<Path, PendingSave> pending = new HashMap<>();
+
+	public JanksonSaveService() {
+		this(DEFAULT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @param delay how long to wait for further saves of the same file before writing it
+	 */
+	public JanksonSaveService(long delay, TimeUnit unit) {
+		if (delay<0) throw new IllegalArgumentException("delay cannot be negative: "+delay);
+		this.delayMillis = unit.toMillis(delay);
+	}
+
+	/**
+	 * Schedules {@code tree} to be written to {@code file}.
+	 * @return a future that completes once the file has been written with this tree or a later one, or completes
+	 *         exceptionally if that write fails
+	 */
+	public CompletableFuture<Void> save(Path file, JsonElement tree) {
+		JsonElement snapshot = FrozenJson.freeze(tree);
+		Path key = file.toAbsolutePath().normalize();
+
+		synchronized(pending) {
+			PendingSave existing = pending.get(key);
+			if (existing!=null) {
+				existing.tree = snapshot;
+				return existing.future;
+			}
+
+			PendingSave save = new PendingSave(snapshot);
+			pending.put(key, save);
+			try {
+				executor.schedule(() -> write(key), delayMillis, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				pending.remove(key);
+				save.future.completeExceptionally(new IOException("This save service has been closed", e));
+			}
+			return save.future;
+		}
+	}
+
+	/**
+	 * Serializes {@code config} with {@code jankson} on the calling thread, then schedules the resulting tree to be
+	 * written like {@link #save(Path, JsonElement)}.
+	 */
+	public CompletableFuture<Void> save(Path file, Object config, Jankson jankson) {
+		return save(file, jankson.toJson(config));
+	}
+
+	/**
+	 * Writes every pending save now, without waiting out the delay.
+	 * @return a future that completes once they've all been written
+	 */
+	public CompletableFuture<Void> flush() {
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		synchronized(pending) {
+			for(Map.Entry<Path, PendingSave> entry : pending.entrySet()) {
+				Path key = entry.getKey();
+				futures.add(entry.getValue().future);
+				try {
+					executor.execute(() -> write(key));
+				} catch (RejectedExecutionException e) {
+					//Closing; close() writes these itself
+				}
+			}
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+	}
+
+	/**
+	 * Writes everything still pending, then stops the background thread. Saves requested afterwards fail.
+	 */
+	@Override
+	public void close() throws IOException {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		//Delayed saves still run after shutdown, so this only finds anything if they didn't all finish in time
+		List<Path> remaining;
+		synchronized(pending) {
+			remaining = new ArrayList<>(pending.keySet());
+		}
+		for(Path key : remaining) write(key);
+	}
+
+	private void write(Path key) {
+		PendingSave save;
+		synchronized(pending) {
+			//Already written by an earlier flush
+			save = pending.remove(key);
+		}
+		if (save==null) return;
+
+		try {
+			writeAtomically(key, save.tree.toJson(true, true));
+			save.future.complete(null);
+		} catch (IOException | RuntimeException e) {
+			save.future.completeExceptionally(e);
+		}
+	}
+
+	private static void writeAtomically(Path file, String text) throws IOException {
+		Path directory = file.getParent();
+		Files.createDirectories(directory);
+		//Not createTempFile, which makes the file readable only by its owner; this gets the usual default permissions
+		Path temp = directory.resolve(file.getFileName()+"."+UUID.randomUUID()+".tmp");
+		try {
+			Files.write(temp, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+			copyPermissions(file, temp);
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Gives {@code to} the POSIX permissions of {@code from}, so replacing a file doesn't change who can read it. Does
+	 * nothing if {@code from} doesn't exist yet or the file system doesn't have POSIX permissions.
+	 */
+	private static void copyPermissions(Path from, Path to) throws IOException {
+		try {
+			Files.setPosixFilePermissions(to, Files.getPosixFilePermissions(from));
+		} catch (NoSuchFileException | UnsupportedOperationException e) {
+			//A new file, or not a POSIX file system
+		}
+	}
+
+	private static final class PendingSave {
+		private final CompletableFuture<Void> future = new CompletableFuture<>();
+		/** Replaced by later saves of the same file, under the lock on {@code pending}. */
+		private JsonElement tree;
+
+		private PendingSave(JsonElement tree) {
+			this.tree = tree;
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package io.github.cottonmc.jankson;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.api.SyntaxError;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.Decoder;
+
+/**
+ * Streaming companions to {@link JanksonOps}, for data files too large to hold as a tree alongside their decoded form.
+ *
+ * <p>The outermost list or map is read straight from the text, and only one of its elements is built as a
+ * JsonElement at a time. Each element is decoded through the given ops and codec, handed to the caller, and dropped,
+ * so peak memory is one element's tree plus whatever the caller keeps. {@link #select(Reader, Collection)} goes
+ * further, building only the values at a few chosen paths and skipping the rest of the document.
+ */
+public final class JanksonStreams {
+	private JanksonStreams() {}
+
+	/**
+	 * Decodes every element of a top-level JSON5 array, in order.
+	 */
+	public static <A> void decodeList(JanksonOps ops, Reader reader, Decoder<A> decoder, Consumer<DataResult<A>> consumer) throws IOException, SyntaxError {
+		JsonStreamReader in = new JsonStreamReader(reader);
+		in.beginArray();
+		while(in.hasNextElement()) {
+			JsonElement element = in.readElement();
+			consumer.accept(decoder.parse(ops, element));
+		}
+		in.endDocument();
+	}
+
+	/**
+	 * Decodes every value of a top-level JSON5 object, in order.
+	 */
+	public static <A> void decodeMap(JanksonOps ops, Reader reader, Decoder<A> decoder, BiConsumer<String, DataResult<A>> consumer) throws IOException, SyntaxError {
+		JsonStreamReader in = new JsonStreamReader(reader);
+		in.beginObject();
+		for(String key = in.nextKey(); key!=null; key = in.nextKey()) {
+			JsonElement element = in.readElement();
+			consumer.accept(key, decoder.parse(ops, element));
+		}
+		in.endDocument();
+	}
+
+	/**
+	 * Decodes a top-level JSON5 array into a list. If any element fails to decode, the result is an error carrying
+	 * every element that did decode as its partial result.
+	 */
+	public static <A> DataResult<List<A>> decodeList(JanksonOps ops, Reader reader, Decoder<A> decoder) throws IOException, SyntaxError {
+		List<A> result = new ArrayList<>();
+		List<String> errors = new ArrayList<>();
+		decodeList(ops, reader, decoder, it -> it.ifSuccess(result::add).ifError(error -> errors.add(error.message())));
+
+		if (!errors.isEmpty()) return DataResult.error(() -> String.join("; ", errors), result);
+		return DataResult.success(result);
+	}
+
+	/**
+	 * Decodes a top-level JSON5 object into an insertion-ordered map. If any value fails to decode, the result is an
+	 * error carrying every entry that did decode as its partial result.
+	 */
+	public static <A> DataResult<Map<String, A>> decodeMap(JanksonOps ops, Reader reader, Decoder<A> decoder) throws IOException, SyntaxError {
+		Map<String, A> result = new LinkedHashMap<>();
+		List<String> errors = new ArrayList<>();
+		decodeMap(ops, reader, decoder, (key, it) -> it.ifSuccess(value -> result.put(key, value)).ifError(error -> errors.add(key+": "+error.message())));
+
+		if (!errors.isEmpty()) return DataResult.error(() -> String.join("; ", errors), result);
+		return DataResult.success(result);
+	}
+
+	/**
+	 * Reads only the selected parts of a JSON5 document. Each path is a dot-separated list of object keys and array
+	 * indices, such as {@code "worldgen.ores.0"}.
+	 *
+	 * <p>Only the values at the selected paths are built as JsonElements; everything else is skipped over as it's read,
+	 * and reading stops as soon as every path has been found. The values are ready to decode through
+	 * {@link JanksonOps}. Paths that aren't in the document are left out of the result. If a key appears more than
+	 * once, the first value for it is the one selected.
+	 *
+	 * @return the value at each selected path that was found, by path, in the order they appear in the document
+	 */
+	public static Map<String, JsonElement> select(Reader reader, Collection<String> paths) throws IOException, SyntaxError {
+		PathNode root = new PathNode();
+		for(String path : paths) root.add(path);
+
+		Map<String, JsonElement> result = new LinkedHashMap<>();
+		JsonStreamReader in = new JsonStreamReader(reader);
+		int[] remaining = { root.selected };
+		select(in, root, null, result, remaining);
+		if (remaining[0]>0) in.endDocument();
+		return result;
+	}
+
+	/** Reads the value at {@code path}, which {@code node} describes, keeping whatever is selected in it. */
+	private static void select(JsonStreamReader in, PathNode node, String path, Map<String, JsonElement> result, int[] remaining) throws IOException, SyntaxError {
+		if (node.isSelected) {
+			//A duplicated key: this path, and everything selected inside it, was already found and counted
+			if (result.containsKey(path)) {
+				in.skipElement();
+				return;
+			}
+			JsonElement element = in.readElement();
+			result.put(path, element);
+			//Anything selected further in is inside this value or nowhere
+			for(Map.Entry<String, PathNode> child : node.children.entrySet()) {
+				selectWithin(element, child.getKey(), child.getValue(), path+"."+child.getKey(), result);
+			}
+			remaining[0] -= node.selected;
+			return;
+		}
+
+		int ch = in.peek();
+		if (ch=='{') {
+			in.beginObject();
+			for(String key = in.nextKey(); key!=null; key = in.nextKey()) {
+				PathNode child = node.children.get(key);
+				if (child==null) {
+					in.skipElement();
+				} else {
+					select(in, child, (path==null) ? key : path+"."+key, result, remaining);
+					if (remaining[0]==0) return;
+				}
+			}
+		} else if (ch=='[') {
+			in.beginArray();
+			for(int i=0; in.hasNextElement(); i++) {
+				String key = Integer.toString(i);
+				PathNode child = node.children.get(key);
+				if (child==null) {
+					in.skipElement();
+				} else {
+					select(in, child, (path==null) ? key : path+"."+key, result, remaining);
+					if (remaining[0]==0) return;
+				}
+			}
+		} else {
+			in.skipElement();
+		}
+	}
+
+	/** Finds the parts of an already-built value that {@code node}, its child at {@code key}, selects. */
+	private static void selectWithin(JsonElement element, String key, PathNode node, String path, Map<String, JsonElement> result) {
+		JsonElement child = null;
+		if (element instanceof JsonObject) {
+			child = ((JsonObject) element).get(key);
+		} else if (element instanceof JsonArray) {
+			try {
+				int index = Integer.parseInt(key);
+				if (index>=0 && index<((JsonArray) element).size()) child = ((JsonArray) element).get(index);
+			} catch (NumberFormatException e) {
+				//Not an index, so not in an array
+			}
+		}
+		if (child==null) return;
+
+		if (node.isSelected) result.put(path, child);
+		for(Map.Entry<String, PathNode> grandchild : node.children.entrySet()) {
+			selectWithin(child, grandchild.getKey(), grandchild.getValue(), path+"."+grandchild.getKey(), result);
+		}
+	}
+
+	/** One step of the selected paths, as a tree of path segments. */
+	private static final class PathNode {
+		private final Map<String, PathNode> children = new HashMap<>();
+		private boolean isSelected = false;
+		/** How many selected paths end at or below this node. */
+		private int selected = 0;
+
+		private void add(String path) {
+			PathNode node = this;
+			List<PathNode> visited = new ArrayList<>();
+			visited.add(node);
+			for(String segment : path.split("\\.", -1)) {
+				node = node.children.computeIfAbsent(segment, it -> new PathNode());
+				visited.add(node);
+			}
+			if (node.isSelected) return;
+			node.isSelected = true;
+			for(PathNode it : visited) it.selected++;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package io.github.cottonmc.jankson;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonNull;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+
+/**
+ * Interns strings and shares identical small objects across Jankson trees, so that data loaded from many files keeps
+ * one copy of each repeated id, key and leaf object instead of thousands.
+ *
+ * <p>Strings, keys and primitives are interned. Leaf containers - objects and arrays of at most
+ * {@code maxLeafSize} primitives, with no comments, like the objects {@code saveBlockState} produces - are
+ * {@linkplain FrozenJson frozen} and hash-consed, so trees that have been deduplicated must not modify their leaves.
+ * Larger containers are rebuilt but stay mutable. Jankson picks a deserializer by the element's exact class; the ones
+ * {@link JanksonFactory} and {@link JanksonFactory#registerCodec} register also accept frozen leaves, but deserializers
+ * registered elsewhere for {@code JsonObject} or {@code JsonArray} won't be used for them.
+ *
+ * <p>Jankson's parser has no hook for this, so parsed trees are passed through {@link #deduplicate(JsonElement)};
+ * codecs can use {@link DeduplicatingJanksonOps} instead. Unlike the library's own bounded caches, a deduplicator
+ * keeps everything it has seen until {@link #clear()}ed or dropped, so keep one per load (a world, a reload) rather than
+ * one for the lifetime of the game. Safe to use from any number of threads.
+ */
+public class JsonDeduplicator {
+	public static final int DEFAULT_MAX_LEAF_SIZE = 16;
+	
+	private final int maxLeafSize;
+	private final ConcurrentHashMap<String, JsonPrimitive> strings = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<JsonElement, JsonElement> leaves = new ConcurrentHashMap<>();
+	
+	public JsonDeduplicator() {
+		this(DEFAULT_MAX_LEAF_SIZE);
+	}
+	
+	public JsonDeduplicator(int maxLeafSize) {
+		if (maxLeafSize<0) throw new IllegalArgumentException("maxLeafSize cannot be negative: "+maxLeafSize);
+		this.maxLeafSize = maxLeafSize;
+	}
+	
+	/**
+	 * @return the canonical instance of a string
+	 */
+	public String intern(String s) {
+		return primitive(s).asString();
+	}
+	
+	/**
+	 * @return the canonical string primitive for a string
+	 */
+	public JsonPrimitive primitive(String s) {
+		JsonPrimitive result = strings.get(s);
+		if (result!=null) return result;
+		
+		JsonPrimitive created = new JsonPrimitive(s);
+		JsonPrimitive existing = strings.putIfAbsent(s, created);
+		return (existing!=null) ? existing : created;
+	}
+	
+	/**
+	 * Returns the shared, frozen instance of an element if it's a primitive or a leaf container, or the element itself
+	 * otherwise. Unlike {@link #deduplicate(JsonElement)}, this doesn't look inside it.
+	 */
+	public JsonElement canonicalize(JsonElement element) {
+		if (element instanceof JsonPrimitive) {
+			Object value = ((JsonPrimitive) element).getValue();
+			if (value instanceof String) return primitive((String) value);
+		} else if (!isLeaf(element)) {
+			return element;
+		}
+		
+		JsonElement frozen = FrozenJson.freeze(element);
+		JsonElement existing = leaves.putIfAbsent(frozen, frozen);
+		return (existing!=null) ? existing : frozen;
+	}
+	
+	/**
+	 * @return a copy of {@code element} that shares every string, key, primitive and leaf container it can with the
+	 *         other trees this deduplicator has seen. Comments are kept.
+	 */
+	public JsonElement deduplicate(JsonElement element) {
+		if (element instanceof JsonObject) {
+			JsonObject obj = (JsonObject) element;
+			JsonObject result = new JsonObject();
+			for(Map.Entry<String, JsonElement> entry : obj.entrySet()) {
+				result.put(intern(entry.getKey()), deduplicate(entry.getValue()), obj.getComment(entry.getKey()));
+			}
+			return canonicalize(result);
+		} else if (element instanceof JsonArray) {
+			JsonArray array = (JsonArray) element;
+			JsonArray result = new JsonArray();
+			for(int i=0; i<array.size(); i++) {
+				result.add(deduplicate(array.get(i)), array.getComment(i));
+			}
+			return canonicalize(result);
+		} else if (element==null) {
+			return JsonNull.INSTANCE;
+		}
+		
+		return canonicalize(element);
+	}
+	
+	private boolean isLeaf(JsonElement element) {
+		if (element instanceof JsonObject) {
+			JsonObject obj = (JsonObject) element;
+			if (obj.size()>maxLeafSize) return false;
+			for(Map.Entry<String, JsonElement> entry : obj.entrySet()) {
+				if (!isScalar(entry.getValue()) || obj.getComment(entry.getKey())!=null) return false;
+			}
+			return true;
+		} else if (element instanceof JsonArray) {
+			JsonArray array = (JsonArray) element;
+			if (array.size()>maxLeafSize) return false;
+			for(int i=0; i<array.size(); i++) {
+				if (!isScalar(array.get(i)) || array.getComment(i)!=null) return false;
+			}
+			return true;
+		}
+		return false;
+	}
+	
+	private static boolean isScalar(JsonElement element) {
+		return element instanceof JsonPrimitive || element instanceof JsonNull;
+	}
+	
+	/**
+	 * @return the number of distinct strings and shared elements held
+	 */
+	public int size() {
+		return strings.size() + leaves.size();
+	}
+	
+	public void clear() {
+		strings.clear();
+		leaves.clear();
+	}
+}
@@ -0,0 +1,45 @@
+package io.github.cottonmc.jankson;
+
+import java.util.stream.Stream;
+
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.MapLike;
+
+/**
+ * A {@link MapLike} view of a {@link JsonObject}. Lookups go straight to the object without wrapping or unwrapping keys,
+ * and enumerated keys are {@linkplain JsonPrimitives#key(String) cached primitives}.
+ */
+final class JsonObjectMapLike implements MapLike<JsonElement> {
+	private final JsonObject obj;
+	
+	JsonObjectMapLike(JsonObject obj) {
+		this.obj = obj;
+	}
+	
+	@Override
+	public JsonElement get(JsonElement key) {
+		if (!(key instanceof JsonPrimitive)) return null;
+		
+		Object value = ((JsonPrimitive) key).getValue();
+		return obj.get((value instanceof String) ? (String) value : ((JsonPrimitive) key).asString());
+	}
+	
+	@Override
+	public JsonElement get(String key) {
+		return obj.get(key);
+	}
+	
+	@Override
+	public Stream<Pair<JsonElement, JsonElement>> entries() {
+		return obj.entrySet().stream()
+				.map(entry -> Pair.of(JsonPrimitives.key(entry.getKey()), entry.getValue()));
+	}
+	
+	@Override
+	public String toString() {
+		return "MapLike[" + obj + "]";
+	}
+}
@@ -0,0 +1,99 @@
+package io.github.cottonmc.jankson;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import blue.endless.jankson.JsonPrimitive;
+import com.mojang.serialization.DataResult;
+
+/**
+ * Shared, canonical {@link JsonPrimitive} instances.
+ *
+ * <p>JsonPrimitives are immutable, so the same instance can be handed out to any number of trees. Small integers and
+ * a few common doubles come from fixed tables. Map keys come from a small cache, since the same keys repeat
+ * throughout a document; other strings aren't cached, so arbitrary string values can't push keys out.
+ *
+ * <p>The key cache is direct-mapped: each key has one slot, picked by its hash, and a different key landing in the same
+ * slot replaces it. So it never fills up: however many one-off keys (say, those of a large {@code unboundedMap}) pass
+ * through, keys that keep being used, like a record's field names, are cached again the next time they're seen.
+ */
+final class JsonPrimitives {
+	private static final int KEY_SLOTS = 4096;
+	private static final int MAX_KEY_LENGTH = 64;
+	/** Volatile slots, so a primitive is fully constructed by the time another thread reads it from here. */
+	private static final AtomicReferenceArray<JsonPrimitive> KEYS = new AtomicReferenceArray<>(KEY_SLOTS);
+	private static final JsonPrimitive EMPTY_STRING = new JsonPrimitive("");
+	
+	static final int MIN_CACHED_INT = -128;
+	static final int MAX_CACHED_INT = 1023;
+	private static final JsonPrimitive[] INTEGERS = new JsonPrimitive[MAX_CACHED_INT - MIN_CACHED_INT + 1];
+	private static final DataResult<Number>[] INTEGER_RESULTS;
+	
+	private static final JsonPrimitive DOUBLE_ZERO = new JsonPrimitive(0.0);
+	private static final JsonPrimitive DOUBLE_ONE = new JsonPrimitive(1.0);
+	
+	static {
+		@SuppressWarnings("unchecked")
+		DataResult<Number>[] results = new DataResult[INTEGERS.length];
+		for(int i=0; i<INTEGERS.length; i++) {
+			Long value = (long) (i + MIN_CACHED_INT);
+			INTEGERS[i] = new JsonPrimitive(value);
+			results[i] = DataResult.success(value);
+		}
+		INTEGER_RESULTS = results;
+	}
+	
+	private JsonPrimitives() {}
+	
+	/**
+	 * Gets a primitive for a map key, from the cache if it's there. Long keys always get fresh primitives.
+	 */
+	static JsonPrimitive key(String key) {
+		if (key.isEmpty()) return EMPTY_STRING;
+		if (key.length() > MAX_KEY_LENGTH) return new JsonPrimitive(key);
+		
+		int slot = (key.hashCode() ^ (key.hashCode() >>> 16)) & (KEY_SLOTS - 1);
+		JsonPrimitive cached = KEYS.get(slot);
+		if (cached!=null && cached.getValue().equals(key)) return cached;
+		
+		JsonPrimitive result = new JsonPrimitive(key);
+		KEYS.set(slot, result);
+		return result;
+	}
+	
+	static JsonPrimitive of(String value) {
+		return value.isEmpty() ? EMPTY_STRING : new JsonPrimitive(value);
+	}
+	
+	static JsonPrimitive of(long value) {
+		if (isCached(value)) return INTEGERS[(int) value - MIN_CACHED_INT];
+		return new JsonPrimitive(value);
+	}
+	
+	static JsonPrimitive of(double value) {
+		//compare, rather than ==, so that -0.0 doesn't become 0.0
+		if (Double.compare(value, 0.0)==0) return DOUBLE_ZERO;
+		if (Double.compare(value, 1.0)==0) return DOUBLE_ONE;
+		return new JsonPrimitive(value);
+	}
+	
+	static JsonPrimitive of(Number value) {
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return of(value.longValue());
+		} else if (value instanceof Double || value instanceof Float) {
+			return of(value.doubleValue());
+		}
+		return new JsonPrimitive(value);
+	}
+	
+	/**
+	 * @return a shared successful result holding {@code value} as a Long if it's in the cached range, otherwise a new one.
+	 */
+	static DataResult<Number> numberResult(long value) {
+		if (isCached(value)) return INTEGER_RESULTS[(int) value - MIN_CACHED_INT];
+		return DataResult.success(value);
+	}
+	
+	static boolean isCached(long value) {
+		return value >= MIN_CACHED_INT && value <= MAX_CACHED_INT;
+	}
+}
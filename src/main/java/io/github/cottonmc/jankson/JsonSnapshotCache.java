@@ -0,0 +1,298 @@
+package io.github.cottonmc.jankson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonNull;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import blue.endless.jankson.api.SyntaxError;
+
+/**
+ * Keeps binary snapshots of parsed Jankson files, so that files which haven't changed since the last run don't need
+ * their JSON5 text parsed again.
+ *
+ * <p>Each snapshot records the SHA-256 of the text it was made from. {@link #load(Path, Jankson)} reads the snapshot
+ * and uses it when that hash matches the file's current contents; otherwise, or if the snapshot is missing or
+ * unreadable, it parses the text and tries to write a fresh snapshot. Snapshots keep comments, so trees loaded from them
+ * can be saved back out unchanged.
+ *
+ * <p>The format is a header (magic, version, source hash), a table of every distinct key, comment and string value,
+ * and then the tree, with each value tagged by type and strings stored as indices into the table.
+ */
+public class JsonSnapshotCache {
+	private static final int MAGIC = 0x4A534E50; //"JSNP"
+	private static final byte VERSION = 1;
+	private static final int HASH_LENGTH = 32;
+
+	private static final byte TAG_NULL = 0;
+	private static final byte TAG_TRUE = 1;
+	private static final byte TAG_FALSE = 2;
+	private static final byte TAG_INT = 3;
+	private static final byte TAG_LONG = 4;
+	private static final byte TAG_DOUBLE = 5;
+	private static final byte TAG_BIG_INTEGER = 6;
+	private static final byte TAG_STRING = 7;
+	private static final byte TAG_ARRAY = 8;
+	private static final byte TAG_OBJECT = 9;
+
+	private static final int NO_COMMENT = -1;
+
+	private final Path cacheDirectory;
+
+	/**
+	 * @param cacheDirectory where snapshots are kept; created if it doesn't exist
+	 */
+	public JsonSnapshotCache(Path cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * Loads a Jankson file, from its snapshot if that's still up to date, otherwise from its text.
+	 */
+	public JsonElement load(Path source, Jankson jankson) throws IOException, SyntaxError {
+		byte[] bytes = Files.readAllBytes(source);
+		byte[] hash = sha256(bytes);
+		Path snapshot = snapshotPath(source);
+
+		JanksonMetrics.ParseEvent event = new JanksonMetrics.ParseEvent();
+		event.begin();
+		long start = JanksonMetrics.ENABLED ? System.nanoTime() : 0L;
+		JsonElement result = read(snapshot, hash);
+		boolean fromSnapshot = result!=null;
+		try {
+			if (!fromSnapshot) result = jankson.loadElement(new String(bytes, StandardCharsets.UTF_8));
+		} finally {
+			if (JanksonMetrics.ENABLED) JanksonMetrics.FILE_PARSES.record(start);
+			event.end();
+			if (event.shouldCommit()) {
+				event.file = source.toString();
+				event.length = bytes.length;
+				event.fromSnapshot = fromSnapshot;
+				event.commit();
+			}
+		}
+
+		if (!fromSnapshot) {
+			try {
+				write(snapshot, hash, result);
+			} catch (IOException e) {
+				//Read-only or full cache directory; the text parsed fine, so the next load will just parse it again
+			}
+		}
+		return result;
+	}
+
+	private Path snapshotPath(Path source) {
+		//Named for the source's location, so that same-named files in different folders don't collide
+		byte[] pathHash = sha256(source.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+		StringBuilder name = new StringBuilder();
+		for(int i=0; i<16; i++) {
+			name.append(String.format("%02x", pathHash[i]));
+		}
+		return cacheDirectory.resolve(name.append(".jsnap").toString());
+	}
+
+	/**
+	 * @return the snapshot's tree, or null if there's no usable snapshot made from text with the given hash.
+	 */
+	static JsonElement read(Path snapshot, byte[] expectedHash) {
+		if (!Files.isRegularFile(snapshot)) return null;
+
+		//Read onto the heap rather than memory-mapped: on Windows a mapping that's still open (it's only released when
+		//the buffer is collected) keeps write() from replacing the file
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+			if (buffer.getInt()!=MAGIC || buffer.get()!=VERSION) return null;
+
+			byte[] hash = new byte[HASH_LENGTH];
+			buffer.get(hash);
+			if (!Arrays.equals(hash, expectedHash)) return null;
+
+			String[] strings = new String[readLength(buffer)];
+			for(int i=0; i<strings.length; i++) {
+				byte[] utf8 = new byte[readLength(buffer)];
+				buffer.get(utf8);
+				strings[i] = new String(utf8, StandardCharsets.UTF_8);
+			}
+
+			return readElement(buffer, strings);
+		} catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			//Unreadable or damaged; the caller will parse the text and replace it
+			return null;
+		}
+	}
+
+	private static JsonElement readElement(ByteBuffer buffer, String[] strings) {
+		byte tag = buffer.get();
+		switch(tag) {
+			case TAG_NULL: return JsonNull.INSTANCE;
+			case TAG_TRUE: return JsonPrimitive.TRUE;
+			case TAG_FALSE: return JsonPrimitive.FALSE;
+			case TAG_INT: return new JsonPrimitive((long) buffer.getInt());
+			case TAG_LONG: return new JsonPrimitive(buffer.getLong());
+			case TAG_DOUBLE: return new JsonPrimitive(buffer.getDouble());
+			case TAG_BIG_INTEGER: {
+				byte[] bytes = new byte[readLength(buffer)];
+				buffer.get(bytes);
+				return new JsonPrimitive(new BigInteger(bytes));
+			}
+			case TAG_STRING: return new JsonPrimitive(strings[buffer.getInt()]);
+			case TAG_ARRAY: {
+				int size = readLength(buffer);
+				JsonArray result = new JsonArray();
+				for(int i=0; i<size; i++) {
+					String comment = readComment(buffer, strings);
+					result.add(readElement(buffer, strings), comment);
+				}
+				return result;
+			}
+			case TAG_OBJECT: {
+				int size = readLength(buffer);
+				JsonObject result = new JsonObject();
+				for(int i=0; i<size; i++) {
+					String key = strings[buffer.getInt()];
+					String comment = readComment(buffer, strings);
+					result.put(key, readElement(buffer, strings), comment);
+				}
+				return result;
+			}
+			default: throw new IllegalArgumentException("Unknown tag "+tag);
+		}
+	}
+
+	/**
+	 * Reads a count or byte length. Every counted item takes at least one byte, so a damaged length shows up as negative
+	 * or larger than what's left.
+	 */
+	private static int readLength(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length<0 || length>buffer.remaining()) throw new IllegalArgumentException("Bad length "+length);
+		return length;
+	}
+
+	private static String readComment(ByteBuffer buffer, String[] strings) {
+		int index = buffer.getInt();
+		return (index==NO_COMMENT) ? null : strings[index];
+	}
+
+	/**
+	 * Writes a snapshot of a tree parsed from text with the given hash, replacing any previous snapshot atomically.
+	 */
+	static void write(Path snapshot, byte[] hash, JsonElement element) throws IOException {
+		Map<String, Integer> strings = new LinkedHashMap<>();
+		ByteArrayOutputStream tree = new ByteArrayOutputStream();
+		writeElement(new DataOutputStream(tree), element, strings);
+
+		ByteArrayOutputStream file = new ByteArrayOutputStream(tree.size() + 1024);
+		DataOutputStream out = new DataOutputStream(file);
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		out.write(hash);
+		out.writeInt(strings.size());
+		for(String s : strings.keySet()) {
+			byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(utf8.length);
+			out.write(utf8);
+		}
+		tree.writeTo(out);
+		out.flush();
+
+		Files.createDirectories(snapshot.getParent());
+		Path temp = Files.createTempFile(snapshot.getParent(), snapshot.getFileName().toString(), ".tmp");
+		try {
+			Files.write(temp, file.toByteArray());
+			try {
+				Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static void writeElement(DataOutputStream out, JsonElement element, Map<String, Integer> strings) throws IOException {
+		if (element instanceof JsonObject) {
+			JsonObject obj = (JsonObject) element;
+			out.writeByte(TAG_OBJECT);
+			out.writeInt(obj.size());
+			for(Map.Entry<String, JsonElement> entry : obj.entrySet()) {
+				out.writeInt(index(entry.getKey(), strings));
+				writeComment(out, obj.getComment(entry.getKey()), strings);
+				writeElement(out, entry.getValue(), strings);
+			}
+		} else if (element instanceof JsonArray) {
+			JsonArray array = (JsonArray) element;
+			out.writeByte(TAG_ARRAY);
+			out.writeInt(array.size());
+			for(int i=0; i<array.size(); i++) {
+				writeComment(out, array.getComment(i), strings);
+				writeElement(out, array.get(i), strings);
+			}
+		} else if (element instanceof JsonPrimitive) {
+			Object value = ((JsonPrimitive) element).getValue();
+			if (value instanceof Boolean) {
+				out.writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+			} else if (value instanceof String) {
+				out.writeByte(TAG_STRING);
+				out.writeInt(index((String) value, strings));
+			} else if (value instanceof BigInteger) {
+				byte[] bytes = ((BigInteger) value).toByteArray();
+				out.writeByte(TAG_BIG_INTEGER);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			} else if (value instanceof Double || value instanceof Float) {
+				out.writeByte(TAG_DOUBLE);
+				out.writeDouble(((Number) value).doubleValue());
+			} else if (value instanceof Number) {
+				long l = ((Number) value).longValue();
+				if (l==(int) l) {
+					out.writeByte(TAG_INT);
+					out.writeInt((int) l);
+				} else {
+					out.writeByte(TAG_LONG);
+					out.writeLong(l);
+				}
+			} else {
+				out.writeByte(TAG_STRING);
+				out.writeInt(index(((JsonPrimitive) element).asString(), strings));
+			}
+		} else {
+			out.writeByte(TAG_NULL);
+		}
+	}
+
+	private static void writeComment(DataOutputStream out, String comment, Map<String, Integer> strings) throws IOException {
+		out.writeInt((comment==null) ? NO_COMMENT : index(comment, strings));
+	}
+
+	private static int index(String s, Map<String, Integer> strings) {
+		return strings.computeIfAbsent(s, it -> strings.size());
+	}
+
+	static byte[] sha256(byte[] bytes) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(bytes);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is a required algorithm on every Java platform", e);
+		}
+	}
+}
@@ -0,0 +1,329 @@
+package io.github.cottonmc.jankson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonNull;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import blue.endless.jankson.api.SyntaxError;
+
+/**
+ * A pull reader over JSON5 text, for callers that want to walk a document without building all of it.
+ *
+ * <p>Jankson's own parser only produces whole trees, so this understands the same lenient syntax - comments,
+ * unquoted keys, single-quoted strings, hex numbers, Infinity/NaN, optional and trailing commas - and lets the caller
+ * decide, value by value, whether to {@linkplain #readElement() build it} or {@linkplain #skipElement() skip it}.
+ * Comments are discarded.
+ */
+final class JsonStreamReader implements Closeable {
+	private final Reader reader;
+	private final char[] buffer = new char[8192];
+	private int pos = 0;
+	private int limit = 0;
+	private int line = 1;
+	private int column = 0;
+
+	JsonStreamReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * @return the next significant character, without consuming it, or -1 at the end of the input.
+	 */
+	int peek() throws IOException, SyntaxError {
+		skipWhitespaceAndComments();
+		return peekChar();
+	}
+
+	void beginObject() throws IOException, SyntaxError {
+		expect('{');
+	}
+
+	/**
+	 * Reads the next key of the current object, and the colon after it.
+	 * @return the key, or null if the object has ended, in which case its closing brace has been consumed.
+	 */
+	String nextKey() throws IOException, SyntaxError {
+		skipSeparator();
+		int ch = peekChar();
+		if (ch=='}') {
+			readChar();
+			return null;
+		}
+		if (ch==-1) throw error("Unexpected end of input inside an object");
+
+		String key = (ch=='"' || ch=='\'') ? readString() : readBareKey();
+		expect(':');
+		return key;
+	}
+
+	void beginArray() throws IOException, SyntaxError {
+		expect('[');
+	}
+
+	/**
+	 * @return true if the current array has another element, or false if it has ended, in which case its closing
+	 *         bracket has been consumed.
+	 */
+	boolean hasNextElement() throws IOException, SyntaxError {
+		skipSeparator();
+		int ch = peekChar();
+		if (ch==']') {
+			readChar();
+			return false;
+		}
+		if (ch==-1) throw error("Unexpected end of input inside an array");
+		return true;
+	}
+
+	/**
+	 * Builds the next value, and everything inside it, as a JsonElement.
+	 */
+	JsonElement readElement() throws IOException, SyntaxError {
+		int ch = peek();
+		if (ch=='{') {
+			beginObject();
+			JsonObject result = new JsonObject();
+			for(String key = nextKey(); key!=null; key = nextKey()) {
+				result.put(key, readElement());
+			}
+			return result;
+		} else if (ch=='[') {
+			beginArray();
+			JsonArray result = new JsonArray();
+			while(hasNextElement()) {
+				result.add(readElement());
+			}
+			return result;
+		} else {
+			return readPrimitive();
+		}
+	}
+
+	/**
+	 * Consumes the next value without building anything for it.
+	 */
+	void skipElement() throws IOException, SyntaxError {
+		int ch = peek();
+		if (ch=='{') {
+			beginObject();
+			while(nextKey()!=null) skipElement();
+		} else if (ch=='[') {
+			beginArray();
+			while(hasNextElement()) skipElement();
+		} else if (ch=='"' || ch=='\'') {
+			skipString();
+		} else {
+			//Still checked, so that skipping accepts exactly what reading would
+			String token = readToken();
+			if (!isLiteral(token)) parseNumber(token);
+		}
+	}
+
+	/**
+	 * Checks that nothing but whitespace and comments remain.
+	 */
+	void endDocument() throws IOException, SyntaxError {
+		if (peek()!=-1) throw error("Unexpected content after the end of the document");
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	private JsonElement readPrimitive() throws IOException, SyntaxError {
+		int ch = peekChar();
+		if (ch==-1) throw error("Expected a value but found the end of the input");
+		if (ch=='"' || ch=='\'') return new JsonPrimitive(readString());
+
+		String token = readToken();
+		switch(token) {
+			case "null": return JsonNull.INSTANCE;
+			case "true": return JsonPrimitive.TRUE;
+			case "false": return JsonPrimitive.FALSE;
+			default: return new JsonPrimitive(parseNumber(token));
+		}
+	}
+
+	private static boolean isLiteral(String token) {
+		return token.equals("null") || token.equals("true") || token.equals("false");
+	}
+
+	private Number parseNumber(String token) throws SyntaxError {
+		boolean negative = token.startsWith("-");
+		String digits = (negative || token.startsWith("+")) ? token.substring(1) : token;
+
+		try {
+			if (digits.equals("Infinity")) return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+			if (digits.equals("NaN")) return Double.NaN;
+
+			if (digits.startsWith("0x") || digits.startsWith("0X")) {
+				long value = Long.parseUnsignedLong(digits.substring(2), 16);
+				return negative ? -value : value;
+			}
+
+			if (digits.indexOf('.')!=-1 || digits.indexOf('e')!=-1 || digits.indexOf('E')!=-1) {
+				return Double.parseDouble(token);
+			}
+
+			BigInteger value = new BigInteger(digits);
+			if (negative) value = value.negate();
+			return (value.bitLength() < 64) ? (Number) value.longValue() : value;
+		} catch (NumberFormatException e) {
+			throw error("Not a valid value: '"+token+"'");
+		}
+	}
+
+	private String readString() throws IOException, SyntaxError {
+		int quote = readChar();
+		StringBuilder result = new StringBuilder();
+		while(true) {
+			int ch = readChar();
+			if (ch==-1) throw error("Unterminated string");
+			if (ch==quote) return result.toString();
+			if (ch=='\\') {
+				readEscape(result);
+			} else {
+				result.append((char) ch);
+			}
+		}
+	}
+
+	private void skipString() throws IOException, SyntaxError {
+		int quote = readChar();
+		while(true) {
+			int ch = readChar();
+			if (ch==-1) throw error("Unterminated string");
+			if (ch==quote) return;
+			if (ch=='\\' && readChar()==-1) throw error("Unterminated string");
+		}
+	}
+
+	private void readEscape(StringBuilder result) throws IOException, SyntaxError {
+		int ch = readChar();
+		switch(ch) {
+			case 'b': result.append('\b'); break;
+			case 'f': result.append('\f'); break;
+			case 'n': result.append('\n'); break;
+			case 'r': result.append('\r'); break;
+			case 't': result.append('\t'); break;
+			case 'v': result.append('\u000B'); break;
+			case '0': result.append('\0'); break;
+			case '\r':
+				//Line continuation
+				if (peekChar()=='\n') readChar();
+				break;
+			case '\n': break;
+			case 'u':
+				int value = 0;
+				for(int i=0; i<4; i++) {
+					int digit = Character.digit(readChar(), 16);
+					if (digit==-1) throw error("Invalid unicode escape");
+					value = (value << 4) | digit;
+				}
+				result.append((char) value);
+				break;
+			case -1: throw error("Unterminated string");
+			default: result.append((char) ch);
+		}
+	}
+
+	/** Reads an unquoted key, which like in JSON5 has to be an identifier. */
+	private String readBareKey() throws IOException, SyntaxError {
+		int ch = peekChar();
+		if (ch==-1 || !Character.isJavaIdentifierStart(ch)) throw error("Expected a key");
+		StringBuilder result = new StringBuilder();
+		while(ch!=-1 && Character.isJavaIdentifierPart(ch)) {
+			result.append((char) readChar());
+			ch = peekChar();
+		}
+		return result.toString();
+	}
+
+	/** Reads a bare word or number, up to the next structural character, whitespace or comment. */
+	private String readToken() throws IOException, SyntaxError {
+		StringBuilder result = new StringBuilder();
+		while(true) {
+			int ch = peekChar();
+			if (ch==-1 || ch==',' || ch==':' || ch=='}' || ch==']' || ch=='{' || ch=='[' || ch=='/' || Character.isWhitespace(ch)) break;
+			result.append((char) readChar());
+		}
+		if (result.length()==0) throw error("Expected a value");
+		return result.toString();
+	}
+
+	private void skipSeparator() throws IOException, SyntaxError {
+		skipWhitespaceAndComments();
+		if (peekChar()==',') {
+			readChar();
+			skipWhitespaceAndComments();
+		}
+	}
+
+	private void expect(char expected) throws IOException, SyntaxError {
+		skipWhitespaceAndComments();
+		int ch = readChar();
+		if (ch!=expected) throw error("Expected '"+expected+"' but found "+((ch==-1) ? "the end of the input" : "'"+(char) ch+"'"));
+	}
+
+	private void skipWhitespaceAndComments() throws IOException, SyntaxError {
+		while(true) {
+			int ch = peekChar();
+			if (ch==-1) return;
+			if (Character.isWhitespace(ch)) {
+				readChar();
+			} else if (ch=='/') {
+				readChar();
+				int next = readChar();
+				if (next=='/') {
+					for(int c = readChar(); c!=-1 && c!='\n'; c = readChar());
+				} else if (next=='*') {
+					int prev = 0;
+					for(int c = readChar(); !(prev=='*' && c=='/'); c = readChar()) {
+						if (c==-1) throw error("Unterminated comment");
+						prev = c;
+					}
+				} else {
+					throw error("Unexpected '/'");
+				}
+			} else {
+				return;
+			}
+		}
+	}
+
+	private int peekChar() throws IOException {
+		if (pos==limit && !fill()) return -1;
+		return buffer[pos];
+	}
+
+	private int readChar() throws IOException {
+		if (pos==limit && !fill()) return -1;
+		char ch = buffer[pos++];
+		if (ch=='\n') {
+			line++;
+			column = 0;
+		} else {
+			column++;
+		}
+		return ch;
+	}
+
+	private boolean fill() throws IOException {
+		int read = reader.read(buffer, 0, buffer.length);
+		if (read<=0) return false;
+		pos = 0;
+		limit = read;
+		return true;
+	}
+
+	private SyntaxError error(String message) {
+		return new SyntaxError(message+" at line "+line+", column "+column);
+	}
+}
@@ -0,0 +1,94 @@
+package io.github.cottonmc.jankson;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonNull;
+import blue.endless.jankson.JsonPrimitive;
+import net.minecraft.registry.Registry;
+import net.minecraft.util.Identifier;
+
+/**
+ * Caches the string-to-entry and entry-to-JsonPrimitive lookups the registry serializers make, so that ids repeated
+ * throughout a config are only parsed and looked up once.
+ *
+ * <p>Registries only ever grow, so both caches are dropped whenever the registry's size changes. While mods are still
+ * registering things this keeps defaulted lookups (and misses) from going stale; once the registry is frozen the
+ * caches fill once and stay valid. The caches are bounded, since the strings come from user-supplied files.
+ *
+ * <p>The registry itself is only resolved the first time something is looked up.
+ */
+final class RegistryLookup<T> {
+	private static final int MAX_CACHED = 8192;
+	
+	private final Supplier<? extends Registry<? extends T>> registrySupplier;
+	private volatile Registry<T> registry;
+	private final ConcurrentHashMap<String, T> entries = new ConcurrentHashMap<>();
+	/**
+	 * Keyed by identity, like the registry itself: many entry types are records, and distinct entries with equal
+	 * contents (some vanilla damage types, for one) must keep their own ids. It also spares hashing a whole record.
+	 */
+	private final Map<T, JsonPrimitive> ids = Collections.synchronizedMap(new IdentityHashMap<>());
+	private volatile int registrySize = -1;
+	
+	RegistryLookup(Supplier<? extends Registry<? extends T>> registry) {
+		this.registrySupplier = registry;
+	}
+	
+	T deserialize(String s) {
+		validate();
+		
+		T result = entries.get(s);
+		if (result!=null) {
+			if (JanksonMetrics.ENABLED) JanksonMetrics.REGISTRY_HITS.increment();
+			return result;
+		}
+		
+		if (JanksonMetrics.ENABLED) JanksonMetrics.REGISTRY_MISSES.increment();
+		result = registry().get(Identifier.of(s));
+		if (result!=null && entries.size() < MAX_CACHED) entries.put(s, result);
+		return result;
+	}
+	
+	JsonElement serialize(Object o) {
+		validate();
+		
+		@SuppressWarnings("unchecked") //Jankson only hands us objects of the class this lookup was registered for
+		T t = (T) o;
+		JsonPrimitive result = ids.get(t);
+		if (result!=null) {
+			if (JanksonMetrics.ENABLED) JanksonMetrics.REGISTRY_HITS.increment();
+			return result;
+		}
+		
+		if (JanksonMetrics.ENABLED) JanksonMetrics.REGISTRY_MISSES.increment();
+		Identifier id = registry().getId(t);
+		if (id==null) return JsonNull.INSTANCE;
+		result = new JsonPrimitive(id.toString());
+		if (ids.size() < MAX_CACHED) ids.put(t, result);
+		return result;
+	}
+	
+	@SuppressWarnings("unchecked") //Only ever read from, so treating a registry of subtypes as a registry of T is safe
+	private Registry<T> registry() {
+		Registry<T> result = registry;
+		if (result==null) {
+			result = (Registry<T>) registrySupplier.get();
+			registry = result;
+		}
+		return result;
+	}
+	
+	private void validate() {
+		int size = registry().size();
+		if (size!=registrySize) {
+			entries.clear();
+			ids.clear();
+			registrySize = size;
+		}
+	}
+}
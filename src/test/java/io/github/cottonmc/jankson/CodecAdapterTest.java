@@ -0,0 +1,47 @@
+package io.github.cottonmc.jankson;
+
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonPrimitive;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how values pass through the serializer that {@link JanksonFactory#registerCodec} installs.
+ */
+public class CodecAdapterTest {
+	public static final class Name {
+		static final Codec<Name> CODEC = Codec.STRING.flatXmap(
+				it -> DataResult.success(new Name(it)),
+				it -> it.value.isEmpty() ? DataResult.error(() -> "Names can't be empty") : DataResult.success(it.value));
+
+		final String value;
+
+		Name(String value) {
+			this.value = value;
+		}
+	}
+
+	private static Jankson jankson() {
+		Jankson.Builder builder = Jankson.builder();
+		JanksonFactory.registerCodec(builder, Name.class, Name.CODEC);
+		return builder.build();
+	}
+
+	@Test
+	public void encodesThroughTheCodec() {
+		assertEquals(new JsonPrimitive("name"), jankson().toJson(new Name("name")));
+	}
+
+	@Test
+	public void surfacesEncodingErrors() {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> jankson().toJson(new Name("")));
+
+		assertTrue(e.getMessage().contains("Names can't be empty"), e.getMessage());
+	}
+}
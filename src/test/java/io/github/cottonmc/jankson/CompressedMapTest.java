@@ -0,0 +1,118 @@
+package io.github.cottonmc.jankson;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.api.SyntaxError;
+import com.mojang.datafixers.util.Either;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtOps;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round-trips maps through {@link JanksonOps#COMPRESSED}'s {@link FlatJsonMap} format: through text, and through
+ * conversion to and from other ops.
+ */
+public class CompressedMapTest {
+	private static final Jankson JANKSON = Jankson.builder().build();
+	private static final Codec<Map<String, String>> MAP = Codec.unboundedMap(Codec.STRING, Codec.STRING);
+	private static final Map<String, String> VALUE = Map.of("a", "b", "c", "d", "e", "f");
+
+	static final class Entry {
+		static final Codec<Entry> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+				Codec.STRING.fieldOf("name").forGetter(it -> it.name),
+				MAP.fieldOf("tags").forGetter(it -> it.tags)
+			).apply(instance, Entry::new));
+
+		final String name;
+		final Map<String, String> tags;
+
+		Entry(String name, Map<String, String> tags) {
+			this.name = name;
+			this.tags = tags;
+		}
+	}
+
+	private static JsonElement throughText(JsonElement element) throws SyntaxError {
+		return JANKSON.loadElement(element.toJson(false, false));
+	}
+
+	@Test
+	public void roundTripsThroughText() throws SyntaxError {
+		JsonElement encoded = MAP.encodeStart(JanksonOps.COMPRESSED, VALUE).getOrThrow();
+
+		assertEquals(VALUE, MAP.parse(JanksonOps.COMPRESSED, throughText(encoded)).getOrThrow());
+	}
+
+	@Test
+	public void roundTripsRecordsHoldingMapsThroughText() throws SyntaxError {
+		JsonElement encoded = Entry.CODEC.encodeStart(JanksonOps.COMPRESSED, new Entry("name", VALUE)).getOrThrow();
+
+		Entry decoded = Entry.CODEC.parse(JanksonOps.COMPRESSED, throughText(encoded)).getOrThrow();
+
+		assertEquals("name", decoded.name);
+		assertEquals(VALUE, decoded.tags);
+	}
+
+	@Test
+	public void doesntReadListsAsMaps() throws SyntaxError {
+		Codec<Either<List<String>, Map<String, String>>> either = Codec.either(Codec.STRING.listOf(), MAP);
+
+		assertEquals(Either.left(List.of("a", "b")), either.parse(JanksonOps.COMPRESSED, JANKSON.loadElement("[\"a\", \"b\"]")).getOrThrow());
+
+		JsonElement map = throughText(MAP.encodeStart(JanksonOps.COMPRESSED, VALUE).getOrThrow());
+		assertEquals(Either.right(VALUE), either.parse(JanksonOps.COMPRESSED, map).getOrThrow());
+	}
+
+	@Test
+	public void convertsToAndFromGson() throws SyntaxError {
+		JsonElement encoded = MAP.encodeStart(JanksonOps.COMPRESSED, VALUE).getOrThrow();
+
+		for(JsonElement element : List.of(encoded, throughText(encoded))) {
+			com.google.gson.JsonElement gson = JanksonOps.COMPRESSED.convertTo(JsonOps.COMPRESSED, element);
+			assertTrue(gson.isJsonObject(), "JsonOps only reads maps from objects: "+gson);
+			assertEquals(VALUE, MAP.parse(JsonOps.COMPRESSED, gson).getOrThrow());
+
+			JsonElement back = JsonOps.COMPRESSED.convertTo(JanksonOps.COMPRESSED, gson);
+			assertEquals(VALUE, MAP.parse(JanksonOps.COMPRESSED, back).getOrThrow());
+		}
+	}
+
+	@Test
+	public void convertsToNbt() throws SyntaxError {
+		JsonElement encoded = throughText(MAP.encodeStart(JanksonOps.COMPRESSED, VALUE).getOrThrow());
+
+		NbtElement nbt = JanksonOps.COMPRESSED.convertTo(NbtOps.INSTANCE, encoded);
+
+		assertEquals(VALUE, MAP.parse(NbtOps.INSTANCE, nbt).getOrThrow());
+	}
+
+	@Test
+	public void convertsBetweenCompressedAndPlainJankson() throws SyntaxError {
+		JsonElement encoded = throughText(MAP.encodeStart(JanksonOps.COMPRESSED, VALUE).getOrThrow());
+
+		JsonElement plain = JanksonOps.COMPRESSED.convertTo(JanksonOps.INSTANCE, encoded);
+		assertEquals(VALUE, MAP.parse(JanksonOps.INSTANCE, plain).getOrThrow());
+
+		JsonElement compressed = JanksonOps.INSTANCE.convertTo(JanksonOps.COMPRESSED, plain);
+		assertEquals(VALUE, MAP.parse(JanksonOps.COMPRESSED, compressed).getOrThrow());
+	}
+
+	@Test
+	public void removesKeys() {
+		JsonElement encoded = MAP.encodeStart(JanksonOps.COMPRESSED, VALUE).getOrThrow();
+
+		JsonElement removed = JanksonOps.COMPRESSED.remove(encoded, "c");
+
+		assertEquals(Map.of("a", "b", "e", "f"), MAP.parse(JanksonOps.COMPRESSED, removed).getOrThrow());
+	}
+}
@@ -0,0 +1,90 @@
+package io.github.cottonmc.jankson;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.api.SyntaxError;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that trees whose leaves have been shared by a {@link JsonDeduplicator}, and so are frozen subclasses of
+ * JsonObject and JsonArray, still deserialize through the codecs registered with {@link JanksonFactory#registerCodec}.
+ */
+public class DeduplicatedDeserializationTest {
+	public static final class Point {
+		static final Codec<Point> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+				Codec.INT.fieldOf("x").forGetter(it -> it.x),
+				Codec.INT.fieldOf("y").forGetter(it -> it.y)
+			).apply(instance, Point::new));
+
+		final int x;
+		final int y;
+
+		Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	public static final class Ints {
+		static final Codec<Ints> CODEC = Codec.INT.listOf().xmap(Ints::new, it -> it.values);
+
+		final List<Integer> values;
+
+		Ints(List<Integer> values) {
+			this.values = values;
+		}
+	}
+
+	public static final class Holder {
+		public Point first;
+		public Point second;
+		public Ints ints;
+
+		public Holder() {}
+	}
+
+	private static Jankson jankson() {
+		Jankson.Builder builder = Jankson.builder();
+		JanksonFactory.registerCodec(builder, Point.class, Point.CODEC);
+		JanksonFactory.registerCodec(builder, Ints.class, Ints.CODEC);
+		return builder.build();
+	}
+
+	@Test
+	public void deserializesSharedLeavesOfParsedTrees() throws SyntaxError {
+		Jankson jankson = jankson();
+		JsonObject parsed = jankson.load("{ first: { x: 1, y: 2 }, second: { x: 1, y: 2 }, ints: [3, 4, 5] }");
+		JsonObject deduplicated = (JsonObject) new JsonDeduplicator().deduplicate(parsed);
+		//The premise of the test: the leaves really are shared, frozen objects
+		assertSame(deduplicated.get("first"), deduplicated.get("second"));
+		assertTrue(FrozenJson.isFrozen(deduplicated.get("first")));
+		assertTrue(FrozenJson.isFrozen(deduplicated.get("ints")));
+
+		Holder holder = jankson.fromJson(deduplicated, Holder.class);
+
+		assertEquals(1, holder.first.x);
+		assertEquals(2, holder.second.y);
+		assertEquals(List.of(3, 4, 5), holder.ints.values);
+	}
+
+	@Test
+	public void deserializesMapsEncodedWithDeduplicatingOps() {
+		JsonElement encoded = Point.CODEC.encodeStart(new DeduplicatingJanksonOps(new JsonDeduplicator()), new Point(7, 8)).getOrThrow();
+		assertTrue(FrozenJson.isFrozen(encoded));
+
+		Point point = jankson().fromJson((JsonObject) encoded, Point.class);
+
+		assertEquals(7, point.x);
+		assertEquals(8, point.y);
+	}
+}
@@ -0,0 +1,85 @@
+package io.github.cottonmc.jankson;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import blue.endless.jankson.Jankson;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks which changes {@link JanksonReloadManager} delivers, using {@link JanksonReloadManager#reloadAll()} so the
+ * results don't depend on the timing of the file system's watcher.
+ */
+public class JanksonReloadManagerTest {
+	@TempDir
+	Path directory;
+
+	private JanksonReloadManager<String> manager() throws IOException {
+		return new JanksonReloadManager<>(Jankson.builder().build(), JanksonOps.INSTANCE, Codec.STRING.fieldOf("name").codec());
+	}
+
+	@Test
+	public void deliversOnlyChanges() throws IOException {
+		Path file = directory.resolve("a.json5");
+		Files.writeString(file, "{ name: 'first' }");
+		List<String> loaded = new ArrayList<>();
+		List<Path> removed = new ArrayList<>();
+		try (JanksonReloadManager<String> manager = manager()) {
+			manager.addListener(new JanksonReloadManager.Listener<String>() {
+				@Override
+				public void onLoaded(Path path, DataResult<String> result) {
+					loaded.add(result.getOrThrow());
+				}
+
+				@Override
+				public void onRemoved(Path path) {
+					removed.add(path);
+				}
+			});
+			manager.watch(directory);
+
+			assertEquals(1, manager.reloadAll());
+			//Same bytes, nothing to deliver
+			Files.writeString(file, "{ name: 'first' }");
+			assertEquals(0, manager.reloadAll());
+			Files.writeString(file, "{ name: 'second' }");
+			assertEquals(1, manager.reloadAll());
+			Files.delete(file);
+			assertEquals(1, manager.reloadAll());
+		}
+
+		assertEquals(List.of("first", "second"), loaded);
+		assertEquals(List.of(file), removed);
+	}
+
+	@Test
+	public void redeliversChangesAListenerThrewOn() throws IOException {
+		Files.writeString(directory.resolve("a.json5"), "{ name: 'value' }");
+		List<String> loaded = new ArrayList<>();
+		boolean[] fail = { true };
+		try (JanksonReloadManager<String> manager = manager()) {
+			manager.addListener((path, result) -> {
+				if (fail[0]) throw new IllegalStateException("listener failed");
+				loaded.add(result.getOrThrow());
+			});
+			manager.watch(directory);
+
+			assertThrows(IllegalStateException.class, manager::poll);
+			fail[0] = false;
+			//Nothing new has happened to the file, but it's delivered again anyway
+			assertEquals(1, manager.poll());
+		}
+
+		assertEquals(List.of("value"), loaded);
+	}
+}
@@ -0,0 +1,86 @@
+package io.github.cottonmc.jankson;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.api.SyntaxError;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks which values {@link JanksonStreams#select} finds, comparing them as compact JSON text.
+ */
+public class JanksonStreamsTest {
+	private static final String TEXT = String.join("\n",
+			"{",
+			"	name: 'ores',",
+			"	worldgen: {",
+			"		ores: [",
+			"			{ block: 'copper', size: 8 },",
+			"			{ block: 'tin', size: 4 },",
+			"		],",
+			"		enabled: true,",
+			"	},",
+			"	version: 2,",
+			"}");
+
+	private static Map<String, String> select(String text, String... paths) throws IOException, SyntaxError {
+		Map<String, String> result = new LinkedHashMap<>();
+		for(Map.Entry<String, JsonElement> entry : JanksonStreams.select(new StringReader(text), List.of(paths)).entrySet()) {
+			result.put(entry.getKey(), entry.getValue().toJson(false, false));
+		}
+		return result;
+	}
+
+	@Test
+	public void selectsNestedValues() throws IOException, SyntaxError {
+		Map<String, String> selected = select(TEXT, "version", "worldgen.enabled", "name");
+
+		assertEquals(Map.of("name", "\"ores\"", "worldgen.enabled", "true", "version", "2"), selected);
+		//In document order, not the order asked for
+		assertEquals(List.of("name", "worldgen.enabled", "version"), List.copyOf(selected.keySet()));
+	}
+
+	@Test
+	public void selectsArrayIndices() throws IOException, SyntaxError {
+		assertEquals(Map.of(
+				"worldgen.ores.1.block", "\"tin\"",
+				"worldgen.ores.0.size", "8"),
+			select(TEXT, "worldgen.ores.1.block", "worldgen.ores.0.size"));
+	}
+
+	@Test
+	public void selectsPathsInsideSelectedValues() throws IOException, SyntaxError {
+		Map<String, String> selected = select(TEXT, "worldgen.ores", "worldgen.ores.1.size", "worldgen.ores.0.missing");
+
+		assertEquals(List.of("worldgen.ores", "worldgen.ores.1.size"), List.copyOf(selected.keySet()));
+		assertEquals("4", selected.get("worldgen.ores.1.size"));
+	}
+
+	@Test
+	public void leavesOutMissingPaths() throws IOException, SyntaxError {
+		assertEquals(Map.of("version", "2"), select(TEXT,
+				"version", "missing", "worldgen.missing", "worldgen.ores.5", "worldgen.ores.first", "name.inside.a.string"));
+	}
+
+	@Test
+	public void selectsTheFirstOfDuplicatedKeys() throws IOException, SyntaxError {
+		//The second "a" mustn't count as another path found, or the scan would stop before "b"
+		assertEquals(Map.of("a", "1", "b", "3"), select("{ a: 1, a: 2, b: 3 }", "a", "b"));
+		assertEquals(Map.of("a.x", "1", "b", "3"), select("{ a: { x: 1 }, a: { x: 2 }, b: 3 }", "a.x", "b"));
+	}
+
+	@Test
+	public void stopsOnceEverythingIsFound() throws IOException, SyntaxError {
+		assertEquals(Map.of("a", "1"), select("{ a: 1, b: this isn't read", "a"));
+		//But a path that isn't there means reading the whole document
+		assertThrows(SyntaxError.class, () -> select("{ a: 1, b: this is read", "a", "c"));
+	}
+}
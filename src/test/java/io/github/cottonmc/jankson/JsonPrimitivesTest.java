@@ -0,0 +1,31 @@
+package io.github.cottonmc.jankson;
+
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.JsonPrimitive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that {@link JsonPrimitives} caches keys without ever filling up, and leaves values alone.
+ */
+public class JsonPrimitivesTest {
+	@Test
+	public void keepsCachingKeysAfterManyDistinctOnes() {
+		JsonPrimitives.key("name");
+		for(int i=0; i<100_000; i++) {
+			assertEquals("key"+i, JsonPrimitives.key("key"+i).asString());
+		}
+
+		JsonPrimitive name = JsonPrimitives.key("name");
+		assertEquals("name", name.asString());
+		assertSame(name, JsonPrimitives.key("name"));
+	}
+
+	@Test
+	public void doesntCacheValues() {
+		assertNotSame(JsonPrimitives.of("value"), JsonPrimitives.of("value"));
+	}
+}
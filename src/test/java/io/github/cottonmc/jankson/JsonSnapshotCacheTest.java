@@ -0,0 +1,136 @@
+package io.github.cottonmc.jankson;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import blue.endless.jankson.api.SyntaxError;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Round-trips trees through {@link JsonSnapshotCache}'s binary format, and checks that stale or damaged snapshots are
+ * treated as missing rather than failing the load.
+ */
+public class JsonSnapshotCacheTest {
+	private static final Jankson JANKSON = Jankson.builder().build();
+	private static final String TEXT = String.join("\n",
+			"{",
+			"	// The name",
+			"	name: 'snapshot',",
+			"	/* Several kinds of number */",
+			"	numbers: [0, -1, 2147483648, 1.5, -0.0, 1e300],",
+			"	nested: { empty: {}, list: [[], true, false, null, \"\"] },",
+			"	unicode: \"é☃\",",
+			"	repeated: ['snapshot', 'snapshot'],",
+			"}");
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void roundTripsTreesWithComments() throws IOException, SyntaxError {
+		JsonElement tree = JANKSON.loadElement(TEXT);
+		byte[] hash = JsonSnapshotCache.sha256(TEXT.getBytes(StandardCharsets.UTF_8));
+		Path snapshot = directory.resolve("tree.jsnap");
+
+		JsonSnapshotCache.write(snapshot, hash, tree);
+		JsonElement read = JsonSnapshotCache.read(snapshot, hash);
+
+		assertNotNull(read);
+		assertEquals(tree.toJson(true, true), read.toJson(true, true));
+	}
+
+	@Test
+	public void keepsNumberTypes() throws IOException {
+		JsonArray tree = new JsonArray();
+		tree.add(new JsonPrimitive(7L));
+		tree.add(new JsonPrimitive(Long.MAX_VALUE));
+		tree.add(new JsonPrimitive(new BigInteger("123456789012345678901234567890")));
+		tree.add(new JsonPrimitive(-0.0));
+		tree.add(new JsonPrimitive(Double.NaN));
+		byte[] hash = new byte[32];
+		Path snapshot = directory.resolve("numbers.jsnap");
+
+		JsonSnapshotCache.write(snapshot, hash, tree);
+		JsonArray read = (JsonArray) JsonSnapshotCache.read(snapshot, hash);
+
+		assertNotNull(read);
+		for(int i=0; i<tree.size(); i++) {
+			assertEquals(((JsonPrimitive) tree.get(i)).getValue(), ((JsonPrimitive) read.get(i)).getValue(), "element "+i);
+		}
+	}
+
+	@Test
+	public void ignoresSnapshotsOfOtherText() throws IOException {
+		Path snapshot = directory.resolve("stale.jsnap");
+		JsonSnapshotCache.write(snapshot, JsonSnapshotCache.sha256(new byte[] { 1 }), new JsonObject());
+
+		assertNull(JsonSnapshotCache.read(snapshot, JsonSnapshotCache.sha256(new byte[] { 2 })));
+	}
+
+	@Test
+	public void ignoresDamagedSnapshots() throws IOException, SyntaxError {
+		byte[] hash = new byte[32];
+		Path snapshot = directory.resolve("damaged.jsnap");
+		JsonSnapshotCache.write(snapshot, hash, JANKSON.loadElement(TEXT));
+		byte[] bytes = Files.readAllBytes(snapshot);
+
+		//Every truncation
+		for(int length=0; length<bytes.length; length++) {
+			Files.write(snapshot, Arrays.copyOf(bytes, length));
+			assertNull(JsonSnapshotCache.read(snapshot, hash), "truncated to "+length);
+		}
+
+		//A negative string count, straight after the magic, version and hash
+		byte[] negative = bytes.clone();
+		ByteBuffer.wrap(negative).putInt(5 + 32, -1);
+		Files.write(snapshot, negative);
+		assertNull(JsonSnapshotCache.read(snapshot, hash));
+
+		//A huge one
+		byte[] huge = bytes.clone();
+		ByteBuffer.wrap(huge).putInt(5 + 32, Integer.MAX_VALUE);
+		Files.write(snapshot, huge);
+		assertNull(JsonSnapshotCache.read(snapshot, hash));
+	}
+
+	@Test
+	public void loadsFromSnapshotOnceWritten() throws IOException, SyntaxError {
+		Path source = directory.resolve("config.json5");
+		Files.writeString(source, TEXT);
+		JsonSnapshotCache cache = new JsonSnapshotCache(directory.resolve("cache"));
+
+		JsonElement parsed = cache.load(source, JANKSON);
+		JsonElement cached = cache.load(source, JANKSON);
+
+		assertEquals(parsed.toJson(true, true), cached.toJson(true, true));
+	}
+
+	@Test
+	public void loadsEvenIfTheSnapshotCantBeWritten() throws IOException, SyntaxError {
+		Path source = directory.resolve("config.json5");
+		Files.writeString(source, TEXT);
+		//A file where the cache directory should be
+		Path blocked = directory.resolve("blocked");
+		Files.writeString(blocked, "");
+
+		JsonElement loaded = new JsonSnapshotCache(blocked).load(source, JANKSON);
+
+		assertEquals(JANKSON.loadElement(TEXT).toJson(true, true), loaded.toJson(true, true));
+	}
+}
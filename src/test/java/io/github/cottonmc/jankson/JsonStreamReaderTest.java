@@ -0,0 +1,101 @@
+package io.github.cottonmc.jankson;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.api.SyntaxError;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link JsonStreamReader} builds the same trees as Jankson's own parser. Comments are compared away,
+ * since the stream reader discards them.
+ */
+public class JsonStreamReaderTest {
+	private static final Jankson JANKSON = Jankson.builder().build();
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"{}",
+		"[]",
+		"{\"a\": 1, \"b\": -2.5, \"c\": 1e3, \"d\": true, \"e\": false, \"f\": null}",
+		"{\"nested\": {\"list\": [1, [2, [3]], {\"x\": \"y\"}]}}",
+		"{\"escapes\": \"tab\\there \\\"quoted\\\" \\\\ \\u00e9 \\n\"}",
+		"{unquoted: 'single', other_key: \"double\"}",
+		"{\"trailing\": [1, 2, 3,], \"commas\": {\"a\": 1,},}",
+		"{// line comment\n\"a\": /* block comment */ 1\n/* another */}",
+		"{\"a\": 1\n\"b\": 2}",
+		"[\"\", \"unicode \u2603\", 0, -7]",
+	})
+	public void matchesJankson(String text) throws IOException, SyntaxError {
+		JsonElement expected = JANKSON.loadElement(text);
+		JsonElement actual;
+		try (JsonStreamReader reader = new JsonStreamReader(new StringReader(text))) {
+			actual = reader.readElement();
+			reader.endDocument();
+		}
+		assertEquals(expected.toJson(false, false), actual.toJson(false, false));
+	}
+
+	@Test
+	public void skipsValuesItDoesntRead() throws IOException, SyntaxError {
+		String text = "{\"skip\": {\"deep\": [1, {\"x\": 'a]}'}, \"b\"]}, \"keep\": [1, 2], \"also skipped\": \"}\"}";
+		try (JsonStreamReader reader = new JsonStreamReader(new StringReader(text))) {
+			reader.beginObject();
+			assertEquals("skip", reader.nextKey());
+			reader.skipElement();
+			assertEquals("keep", reader.nextKey());
+			assertEquals(JANKSON.loadElement("[1, 2]").toJson(false, false), reader.readElement().toJson(false, false));
+			assertEquals("also skipped", reader.nextKey());
+			reader.skipElement();
+			assertNull(reader.nextKey());
+			reader.endDocument();
+		}
+	}
+
+	@Test
+	public void readsArraysElementByElement() throws IOException, SyntaxError {
+		try (JsonStreamReader reader = new JsonStreamReader(new StringReader("[{\"a\": 1}, 2, ]"))) {
+			reader.beginArray();
+			assertTrue(reader.hasNextElement());
+			reader.skipElement();
+			assertTrue(reader.hasNextElement());
+			assertEquals("2", reader.readElement().toJson(false, false));
+			assertFalse(reader.hasNextElement());
+		}
+	}
+
+	@Test
+	public void rejectsMalformedInput() {
+		for(String text : List.of("{\"a\": 1", "[1, 2", "{\"a\" 1}", "{} extra",
+				//Bare keys are identifiers, not whatever comes before the colon
+				"{a,b: 1}", "{a b: 1}", "{: 1}", "{1a: 1}",
+				//Bare values are literals or numbers
+				"[tru]", "{\"a\": 1x}", "{\"a\": [nul]}")) {
+			//Skipping has to reject the same documents as reading does
+			assertThrows(SyntaxError.class, () -> {
+				try (JsonStreamReader reader = new JsonStreamReader(new StringReader(text))) {
+					reader.readElement();
+					reader.endDocument();
+				}
+			}, "reading "+text);
+			assertThrows(SyntaxError.class, () -> {
+				try (JsonStreamReader reader = new JsonStreamReader(new StringReader(text))) {
+					reader.skipElement();
+					reader.endDocument();
+				}
+			}, "skipping "+text);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package io.github.cottonmc.jankson;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import blue.endless.jankson.api.SyntaxError;
+import net.minecraft.block.BlockState;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the index packing behind {@link BlockAndItemSerializers#saveBlockStates}, and the validation and null handling
+ * of the saved format, none of which needs any real BlockStates to test.
+ */
+public class PaletteIndicesTest {
+	@Test
+	public void paletteBits() {
+		assertEquals(0, BlockAndItemSerializers.paletteBits(0));
+		assertEquals(0, BlockAndItemSerializers.paletteBits(1));
+		assertEquals(1, BlockAndItemSerializers.paletteBits(2));
+		assertEquals(2, BlockAndItemSerializers.paletteBits(3));
+		assertEquals(2, BlockAndItemSerializers.paletteBits(4));
+		assertEquals(3, BlockAndItemSerializers.paletteBits(5));
+		assertEquals(16, BlockAndItemSerializers.paletteBits(65536));
+		assertEquals(17, BlockAndItemSerializers.paletteBits(65537));
+	}
+
+	@Test
+	public void roundTripsEveryWidth() {
+		Random random = new Random(0);
+		for(int paletteSize=2; paletteSize<=(1 << 20); paletteSize*=3) {
+			int bits = BlockAndItemSerializers.paletteBits(paletteSize);
+			//Lengths around a multiple of the indices per long, so the last long is full, partial and nearly empty
+			int perLong = 64 / bits;
+			for(int size : new int[] { 0, 1, perLong - 1, perLong, perLong + 1, perLong * 7 + 3, 4096 }) {
+				int[] data = new int[size];
+				for(int i=0; i<size; i++) data[i] = random.nextInt(paletteSize);
+				//The largest index, to catch sign extension in the top slot
+				if (size>0) data[size-1] = paletteSize - 1;
+
+				JsonArray packed = BlockAndItemSerializers.packIndices(data, bits);
+
+				assertEquals((size + perLong - 1) / perLong, packed.size(), "longs for "+size+" indices of "+bits+" bits");
+				assertArrayEquals(data, BlockAndItemSerializers.unpackIndices(packed, size, bits, paletteSize), size+" indices of "+bits+" bits");
+			}
+		}
+	}
+
+	@Test
+	public void packsNothingForOneChoice() {
+		assertEquals(0, BlockAndItemSerializers.packIndices(new int[] { 0, 0, 0 }, 0).size());
+	}
+
+	@Test
+	public void rejectsBadData() {
+		int[] data = { 0, 1, 2, 1, 0 };
+		JsonArray packed = BlockAndItemSerializers.packIndices(data, 2);
+
+		//Wrong number of longs
+		assertNull(BlockAndItemSerializers.unpackIndices(packed, 64, 2, 3));
+		assertNull(BlockAndItemSerializers.unpackIndices(new JsonArray(), 5, 2, 3));
+
+		//An index past the end of the palette
+		assertNull(BlockAndItemSerializers.unpackIndices(packed, 5, 2, 2));
+
+		//Not a number
+		JsonArray notNumbers = new JsonArray();
+		notNumbers.add(new JsonPrimitive("0"));
+		assertNull(BlockAndItemSerializers.unpackIndices(notNumbers, 5, 2, 3));
+	}
+
+	@Test
+	public void rejectsSizesTheDataDoesntBackUp() throws SyntaxError {
+		Jankson jankson = Jankson.builder().build();
+		for(String text : List.of(
+				//A single state has no data to check the size against
+				"{ size: 2147483647, bits: 0, palette: [null], data: [] }",
+				"{ size: 3, bits: 0, palette: [null], data: [0] }",
+				//Too little data for the size
+				"{ size: 2147483647, bits: 1, palette: [null, null], data: [0] }",
+				"{ size: 65, bits: 1, palette: [null, null], data: [0] }",
+				//Too much
+				"{ size: 1, bits: 1, palette: [null, null], data: [0, 0] }")) {
+			JsonObject saved = jankson.load(text);
+			assertNull(BlockAndItemSerializers.getBlockStates(saved, null), text);
+		}
+	}
+
+	@Test
+	public void roundTripsNullStates() {
+		BlockState[] states = new BlockState[100];
+
+		JsonObject saved = BlockAndItemSerializers.saveBlockStates(states, null);
+		BlockState[] read = BlockAndItemSerializers.getBlockStates(saved, null);
+
+		assertEquals(states.length, read.length);
+		assertTrue(Arrays.stream(read).allMatch(it -> it==null));
+	}
+}